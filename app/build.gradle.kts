@@ -43,6 +43,10 @@ android {
         getByName("main") {
             assets.srcDirs("src/main/assets") // 保留默认assets目录即可
         }
+        // 迁移测试从assets读取导出的schema；流式解析基准测试与单元测试共用录制的响应
+        getByName("androidTest") {
+            assets.srcDirs(files("${projectDir}/db/schemas", "src/test/resources"))
+        }
     }
 }
 
@@ -68,6 +72,13 @@ val createDbDir by tasks.registering {
     }
 }
 
+// 3. 从db/source/cities.csv重新生成预打包城市库（需要python3，数据更新时手动执行）
+val buildGazetteer by tasks.registering(Exec::class) {
+    dependsOn(createDbDir)
+    workingDir = file("${projectDir}/db/source")
+    commandLine("python3", "build_gazetteer.py")
+}
+
 // 构建前执行目录创建任务
 tasks.preBuild {
     dependsOn(createSchemaDir, createDbDir)
@@ -90,6 +101,7 @@ dependencies {
     // 移除room-ktx（纯Java开发无需Kotlin扩展）
     implementation("androidx.room:room-runtime:2.5.0")
     annotationProcessor("androidx.room:room-compiler:2.5.0")
+    androidTestImplementation("androidx.room:room-testing:2.5.0")
 
     implementation("androidx.recyclerview:recyclerview:1.3.2")
     implementation("androidx.swiperefreshlayout:swiperefreshlayout:1.1.0")
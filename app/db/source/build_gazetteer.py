@@ -0,0 +1,118 @@
+#!/usr/bin/env python3
+"""
+生成预打包的城市库 src/main/assets/databases/gazetteer.db（GazetteerDatabase.createFromAsset使用）
+
+输入为和风天气城市列表格式的CSV（需要Location_ID、Location_Name_EN、Location_Name_ZH、
+Adm1_Name_ZH、Adm2_Name_ZH、Latitude、Longitude列，其他列忽略，表头前的说明行自动跳过）。
+表结构必须与GazetteerCity、GazetteerCityFts的Room定义一致；修改表结构或数据后
+同时增加GazetteerDatabase的版本号，已安装的应用会重新从asset复制。
+
+用法：python3 build_gazetteer.py [cities.csv] [输出路径]
+"""
+import csv
+import math
+import os
+import sqlite3
+import sys
+
+# 与GazetteerDatabase的version一致
+DATABASE_VERSION = 2
+
+# 与GeoGrid.CELL_DEGREES一致
+CELL_DEGREES = 0.5
+
+HERE = os.path.dirname(os.path.abspath(__file__))
+DEFAULT_CSV = os.path.join(HERE, "cities.csv")
+DEFAULT_OUTPUT = os.path.join(HERE, "..", "..", "src", "main", "assets", "databases", "gazetteer.db")
+
+# 以下语句与Room生成的建表语句保持一致，否则打开时schema校验失败
+SCHEMA = [
+    "CREATE TABLE IF NOT EXISTS `gazetteer_city` (`id` INTEGER NOT NULL, `locationId` TEXT NOT NULL, "
+    "`name` TEXT, `nameEn` TEXT, `adm1` TEXT, `adm2` TEXT, `latitude` TEXT, `longitude` TEXT, "
+    "`gridCell` INTEGER NOT NULL, PRIMARY KEY(`id`))",
+    "CREATE UNIQUE INDEX IF NOT EXISTS `index_gazetteer_city_locationId` ON `gazetteer_city` (`locationId`)",
+    "CREATE INDEX IF NOT EXISTS `index_gazetteer_city_gridCell` ON `gazetteer_city` (`gridCell`)",
+    "CREATE VIRTUAL TABLE IF NOT EXISTS `gazetteer_city_fts` USING FTS4("
+    "`name` TEXT, `nameEn` TEXT, `adm1` TEXT, `adm2` TEXT, content=`gazetteer_city`)",
+]
+
+FTS_COLUMNS = ["name", "nameEn", "adm1", "adm2"]
+
+
+def grid_cell(latitude, longitude):
+    """与GeoGrid.cellOf一致"""
+    rows = int(180 / CELL_DEGREES)
+    columns = int(360 / CELL_DEGREES)
+    row = min(rows - 1, max(0, math.floor((latitude + 90) / CELL_DEGREES)))
+    column = math.floor((longitude + 180) / CELL_DEGREES) % columns
+    return row * columns + column
+
+
+def sync_triggers():
+    columns = ", ".join("`%s`" % c for c in FTS_COLUMNS)
+    values = ", ".join("NEW.`%s`" % c for c in FTS_COLUMNS)
+    triggers = []
+    for when in ("BEFORE_UPDATE", "BEFORE_DELETE"):
+        triggers.append(
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_gazetteer_city_fts_%s %s ON `gazetteer_city` "
+            "BEGIN DELETE FROM `gazetteer_city_fts` WHERE `docid`=OLD.`rowid`; END"
+            % (when, when.replace("_", " ")))
+    for when in ("AFTER_UPDATE", "AFTER_INSERT"):
+        triggers.append(
+            "CREATE TRIGGER IF NOT EXISTS room_fts_content_sync_gazetteer_city_fts_%s %s ON `gazetteer_city` "
+            "BEGIN INSERT INTO `gazetteer_city_fts`(`docid`, %s) VALUES (NEW.`rowid`, %s); END"
+            % (when, when.replace("_", " "), columns, values))
+    return triggers
+
+
+def read_rows(path):
+    with open(path, encoding="utf-8-sig", newline="") as f:
+        lines = f.read().splitlines()
+    # 官方列表第一行是版本说明，从包含Location_ID的表头开始读
+    start = next(i for i, line in enumerate(lines) if line.startswith("Location_ID"))
+    for row in csv.DictReader(lines[start:]):
+        location_id = (row.get("Location_ID") or "").strip()
+        if not location_id:
+            continue
+        latitude = row["Latitude"].strip()
+        longitude = row["Longitude"].strip()
+        yield (
+            location_id,
+            row["Location_Name_ZH"].strip(),
+            row["Location_Name_EN"].strip(),
+            row["Adm1_Name_ZH"].strip(),
+            row["Adm2_Name_ZH"].strip(),
+            latitude,
+            longitude,
+            grid_cell(float(latitude), float(longitude)),
+        )
+
+
+def build(csv_path, output):
+    os.makedirs(os.path.dirname(output), exist_ok=True)
+    if os.path.exists(output):
+        os.remove(output)
+    db = sqlite3.connect(output)
+    try:
+        for sql in SCHEMA + sync_triggers():
+            db.execute(sql)
+        count = 0
+        for i, row in enumerate(read_rows(csv_path), start=1):
+            db.execute(
+                "INSERT OR IGNORE INTO gazetteer_city "
+                "(id, locationId, name, nameEn, adm1, adm2, latitude, longitude, gridCell) "
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)",
+                (i,) + row)
+            count += 1
+        db.execute("INSERT INTO gazetteer_city_fts(gazetteer_city_fts) VALUES ('optimize')")
+        db.execute("PRAGMA user_version = %d" % DATABASE_VERSION)
+        db.commit()
+        db.execute("VACUUM")
+    finally:
+        db.close()
+    print("%d cities -> %s" % (count, os.path.normpath(output)))
+
+
+if __name__ == "__main__":
+    build(sys.argv[1] if len(sys.argv) > 1 else DEFAULT_CSV,
+          sys.argv[2] if len(sys.argv) > 2 else DEFAULT_OUTPUT)
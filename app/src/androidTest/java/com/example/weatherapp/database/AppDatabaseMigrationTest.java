@@ -0,0 +1,129 @@
+package com.example.weatherapp.database;
+
+import android.database.Cursor;
+import android.database.sqlite.SQLiteConstraintException;
+
+import androidx.room.Room;
+import androidx.room.testing.MigrationTestHelper;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.framework.FrameworkSQLiteOpenHelperFactory;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weatherapp.models.City;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+/**
+ * 数据库迁移测试
+ * 用导出的schema创建旧版本数据库，执行迁移后校验表结构和数据
+ */
+@RunWith(AndroidJUnit4.class)
+public class AppDatabaseMigrationTest {
+
+    private static final String TEST_DB = "migration-test";
+
+    @Rule
+    public MigrationTestHelper helper = new MigrationTestHelper(
+            InstrumentationRegistry.getInstrumentation(),
+            AppDatabase.class.getCanonicalName(),
+            new FrameworkSQLiteOpenHelperFactory());
+
+    @Test
+    public void migrate3To4_keepsCitiesAndMergesDuplicates() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 3)) {
+            db.execSQL("INSERT INTO city (id, name, locationId, latitude, longitude) VALUES (1, '北京', '101010100', NULL, NULL)");
+            db.execSQL("INSERT INTO city (id, name, locationId, latitude, longitude) VALUES (2, '北京', '101010100', '39.90', '116.40')");
+            db.execSQL("INSERT INTO city (id, name, locationId, latitude, longitude) VALUES (3, '上海', '101020100', '31.23', '121.47')");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 4, true, AppDatabase.MIGRATION_3_4);
+
+        try (Cursor cursor = db.query("SELECT id, latitude, longitude FROM city WHERE locationId = '101010100'")) {
+            assertEquals(1, cursor.getCount());
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getLong(0));
+            assertEquals("39.90", cursor.getString(1));
+            assertEquals("116.40", cursor.getString(2));
+        }
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM city")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(2, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrate3To4_enforcesUniqueLocationId() throws IOException {
+        helper.createDatabase(TEST_DB, 3).close();
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 4, true, AppDatabase.MIGRATION_3_4);
+
+        db.execSQL("INSERT INTO city (name, locationId) VALUES ('北京', '101010100')");
+        try {
+            db.execSQL("INSERT INTO city (name, locationId) VALUES ('北京市', '101010100')");
+            fail("expected unique constraint on locationId");
+        } catch (SQLiteConstraintException expected) {
+            // locationId唯一
+        }
+    }
+
+    @Test
+    public void migrate4To5_createsSnapshotTable() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 4)) {
+            db.execSQL("INSERT INTO city (name, locationId) VALUES ('北京', '101010100')");
+        }
+
+        SupportSQLiteDatabase db = helper.runMigrationsAndValidate(TEST_DB, 5, true, AppDatabase.MIGRATION_4_5);
+
+        db.execSQL("INSERT INTO weather_snapshot (locationId, section, payload, fetchTime) "
+                + "VALUES ('101010100', 'NOW', '{}', 1)");
+        try (Cursor cursor = db.query("SELECT COUNT(*) FROM city")) {
+            assertTrue(cursor.moveToFirst());
+            assertEquals(1, cursor.getInt(0));
+        }
+    }
+
+    @Test
+    public void migrateAll_fromVersion1() throws IOException {
+        try (SupportSQLiteDatabase db = helper.createDatabase(TEST_DB, 1)) {
+            db.execSQL("INSERT INTO city (name, locationId) VALUES ('北京', '101010100')");
+        }
+
+        AppDatabase database = Room.databaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        AppDatabase.class,
+                        TEST_DB)
+                .addMigrations(AppDatabase.MIGRATIONS)
+                .build();
+        helper.closeWhenFinished(database);
+
+        City city = database.cityDao().getCityByLocationId("101010100");
+        assertNotNull(city);
+        assertEquals("北京", city.getName());
+        assertNull(city.getLatitude());
+    }
+
+    @Test
+    public void upsert_updatesExistingCityByLocationId() {
+        AppDatabase database = Room.inMemoryDatabaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+        CityDao dao = database.cityDao();
+
+        assertTrue(dao.upsert(new City("北京", "101010100", "39.90", "116.40")));
+        assertFalse(dao.upsert(new City("北京市", "101010100")));
+
+        City city = dao.getCityByLocationId("101010100");
+        assertEquals("北京市", city.getName());
+        assertEquals("39.90", city.getLatitude());
+        assertEquals(1, dao.getAllCities().size());
+        database.close();
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.weatherapp.database;
+
+import android.content.Context;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weatherapp.models.City;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.*;
+
+/**
+ * 城市表批量操作的基准测试
+ * 使用文件数据库（WAL），比较逐条插入/删除/更新（每条一个事务）与批量方法（一个事务）的吞吐量
+ */
+@RunWith(AndroidJUnit4.class)
+public class CityDaoBatchBenchmarkTest {
+
+    private static final String TAG = "CityDaoBatchBenchmark";
+    private static final String DB_NAME = "city-batch-benchmark.db";
+
+    private Context context;
+    private AppDatabase database;
+    private CityDao dao;
+
+    @Before
+    public void setUp() {
+        context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        context.deleteDatabase(DB_NAME);
+        database = Room.databaseBuilder(context, AppDatabase.class, DB_NAME)
+                .setJournalMode(AppDatabase.JOURNAL_MODE)
+                .allowMainThreadQueries()
+                .build();
+        dao = database.cityDao();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+        context.deleteDatabase(DB_NAME);
+    }
+
+    @Test
+    public void batch_1k() {
+        run(1_000);
+    }
+
+    @Test
+    public void batch_10k() {
+        run(10_000);
+    }
+
+    private void run(int rows) {
+        List<City> single = cities("a", rows);
+        List<City> batch = cities("b", rows);
+
+        // 插入
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (City city : single) {
+            dao.insert(city);
+        }
+        long singleInsert = SystemClock.elapsedRealtimeNanos() - start;
+
+        start = SystemClock.elapsedRealtimeNanos();
+        long[] ids = dao.insertAll(batch);
+        long batchInsert = SystemClock.elapsedRealtimeNanos() - start;
+        assertEquals(rows, ids.length);
+        assertEquals(2 * rows, dao.getAllCities().size());
+        // 重复插入全部跳过
+        for (long id : dao.insertAll(batch.subList(0, 10))) {
+            assertEquals(-1, id);
+        }
+
+        // 更新经纬度
+        for (City city : single) {
+            city.latitude = "1.0";
+        }
+        for (City city : batch) {
+            city.latitude = "1.0";
+        }
+        start = SystemClock.elapsedRealtimeNanos();
+        for (City city : single) {
+            dao.updateCoordinates(city.locationId, city.latitude, city.longitude);
+        }
+        long singleUpdate = SystemClock.elapsedRealtimeNanos() - start;
+
+        start = SystemClock.elapsedRealtimeNanos();
+        int updated = dao.updateCoordinates(batch);
+        long batchUpdate = SystemClock.elapsedRealtimeNanos() - start;
+        assertEquals(rows, updated);
+        assertEquals("1.0", dao.getCityByLocationId(batch.get(rows - 1).locationId).latitude);
+
+        // 删除
+        start = SystemClock.elapsedRealtimeNanos();
+        for (City city : single) {
+            dao.deleteCity(city.name);
+        }
+        long singleDelete = SystemClock.elapsedRealtimeNanos() - start;
+
+        List<String> locationIds = new ArrayList<>(rows);
+        for (City city : batch) {
+            locationIds.add(city.locationId);
+        }
+        start = SystemClock.elapsedRealtimeNanos();
+        int deleted = dao.deleteByLocationIds(locationIds);
+        long batchDelete = SystemClock.elapsedRealtimeNanos() - start;
+        assertEquals(rows, deleted);
+        assertTrue(dao.getAllCities().isEmpty());
+
+        log(rows, "insert", singleInsert, batchInsert);
+        log(rows, "update", singleUpdate, batchUpdate);
+        log(rows, "delete", singleDelete, batchDelete);
+        assertTrue(batchInsert < singleInsert);
+        assertTrue(batchUpdate < singleUpdate);
+        assertTrue(batchDelete < singleDelete);
+    }
+
+    private static List<City> cities(String prefix, int rows) {
+        List<City> cities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            cities.add(new City(prefix + i, prefix + (100_000 + i), "30.0", "120.0"));
+        }
+        return cities;
+    }
+
+    private static void log(int rows, String operation, long singleNanos, long batchNanos) {
+        Log.i(TAG, String.format(Locale.US,
+                "%s rows=%d single=%.0f/s batch=%.0f/s speedup=%.1fx",
+                operation, rows,
+                rows * 1e9 / singleNanos, rows * 1e9 / batchNanos, (double) singleNanos / batchNanos));
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.weatherapp.database;
+
+import android.content.Context;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weatherapp.models.GazetteerCity;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * 预打包城市库测试
+ * 校验asset能通过Room的schema检查，并且前缀搜索不访问网络即可返回结果
+ */
+@RunWith(AndroidJUnit4.class)
+public class GazetteerSearchTest {
+
+    private GazetteerDao dao() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        return GazetteerDatabase.getInstance(context).gazetteerDao();
+    }
+
+    @Test
+    public void search_prefixMatchesNameAndAdm() {
+        List<GazetteerCity> result = dao().search(GazetteerDao.toMatchQuery("北京"), "北京", 20);
+
+        assertFalse(result.isEmpty());
+        // 名称完全匹配的排在第一位，其后是下属各区
+        assertEquals("101010100", result.get(0).locationId);
+        assertTrue(result.size() > 1);
+    }
+
+    @Test
+    public void search_englishPrefix() {
+        List<GazetteerCity> result = dao().search(GazetteerDao.toMatchQuery("shang"), "shang", 20);
+
+        assertFalse(result.isEmpty());
+        assertEquals("上海", result.get(0).name);
+    }
+
+    @Test
+    public void search_quotesAreEscaped() {
+        assertEquals("\"a\"\"b*\"", GazetteerDao.toMatchQuery("a\"b"));
+        assertTrue(dao().search(GazetteerDao.toMatchQuery("\"不存在"), "\"不存在", 20).isEmpty());
+    }
+
+    @Test
+    public void findNearest_returnsClosestBundledCity() {
+        // 天安门附近
+        List<GazetteerCity> result = dao().findNearest(39.91, 116.40, 3);
+
+        assertEquals(3, result.size());
+        assertEquals("101010100", result.get(0).locationId);
+        assertTrue(result.get(0).distanceKm <= result.get(1).distanceKm);
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.weatherapp.database;
+
+import android.content.Context;
+import android.os.StrictMode;
+import android.os.strictmode.Violation;
+import android.util.Log;
+
+import androidx.test.core.app.ActivityScenario;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weatherapp.DeleteCityActivity;
+import com.example.weatherapp.MainActivity;
+import com.example.weatherapp.SecondActivity;
+import com.example.weatherapp.models.City;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 主线程数据库访问检查
+ * 开启StrictMode的磁盘读写检测后打开各个页面，确认没有任何违规来自SQLite/Room
+ */
+@RunWith(AndroidJUnit4.class)
+public class MainThreadDatabaseAccessTest {
+
+    private static final String TAG = "MainThreadDbTest";
+
+    private final List<Violation> violations = Collections.synchronizedList(new ArrayList<>());
+    private StrictMode.ThreadPolicy originalPolicy;
+
+    @Before
+    public void setUp() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        // 在测试线程（非主线程）准备数据
+        AppDatabase.getInstance(context).cityDao().upsert(new City("北京", "101010100", "39.90", "116.40"));
+
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            originalPolicy = StrictMode.getThreadPolicy();
+            StrictMode.setThreadPolicy(new StrictMode.ThreadPolicy.Builder()
+                    .detectDiskReads()
+                    .detectDiskWrites()
+                    .penaltyListener(Runnable::run, violations::add)
+                    .build());
+        });
+    }
+
+    @After
+    public void tearDown() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> StrictMode.setThreadPolicy(originalPolicy));
+    }
+
+    @Test
+    public void cityScreens_doNotTouchDatabaseOnMainThread() throws InterruptedException {
+        try (ActivityScenario<MainActivity> ignored = ActivityScenario.launch(MainActivity.class)) {
+            settle();
+        }
+        try (ActivityScenario<SecondActivity> ignored = ActivityScenario.launch(SecondActivity.class)) {
+            settle();
+        }
+        try (ActivityScenario<DeleteCityActivity> ignored = ActivityScenario.launch(DeleteCityActivity.class)) {
+            settle();
+        }
+
+        List<Violation> databaseViolations = new ArrayList<>();
+        synchronized (violations) {
+            for (Violation violation : violations) {
+                if (isDatabaseAccess(violation)) {
+                    databaseViolations.add(violation);
+                    Log.e(TAG, "database access on main thread", violation);
+                }
+            }
+        }
+        assertTrue(databaseViolations.size() + " database violations on main thread, see logcat",
+                databaseViolations.isEmpty());
+    }
+
+    /**
+     * 等待异步查询完成并回到主线程更新界面
+     */
+    private static void settle() throws InterruptedException {
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+        Thread.sleep(500);
+        InstrumentationRegistry.getInstrumentation().waitForIdleSync();
+    }
+
+    private static boolean isDatabaseAccess(Violation violation) {
+        for (StackTraceElement element : violation.getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith("android.database.sqlite")
+                    || className.startsWith("androidx.room")
+                    || className.startsWith("androidx.sqlite")) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.weatherapp.database;
+
+import android.database.Cursor;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.room.Room;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteStatement;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weatherapp.models.GazetteerCity;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * 最近城市查询的基准测试
+ * 在10万行的城市表上比较网格索引查询与全表扫描，并校验两者结果一致
+ */
+@RunWith(AndroidJUnit4.class)
+public class NearestCityBenchmarkTest {
+
+    private static final String TAG = "NearestCityBenchmark";
+
+    private static final int ROWS = 100_000;
+    private static final int QUERIES = 200;
+    private static final int K = 5;
+
+    private GazetteerDatabase database;
+    private final Random random = new Random(42);
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        GazetteerDatabase.class)
+                .build();
+        SupportSQLiteDatabase db = database.getOpenHelper().getWritableDatabase();
+        db.beginTransaction();
+        try {
+            SupportSQLiteStatement insert = db.compileStatement("INSERT INTO gazetteer_city "
+                    + "(id, locationId, name, latitude, longitude, gridCell) VALUES (?, ?, ?, ?, ?, ?)");
+            for (int i = 1; i <= ROWS; i++) {
+                // 覆盖中国范围的随机坐标
+                double lat = 18 + random.nextDouble() * 36;
+                double lon = 73 + random.nextDouble() * 62;
+                insert.bindLong(1, i);
+                insert.bindString(2, String.valueOf(100_000_000 + i));
+                insert.bindString(3, "city" + i);
+                insert.bindString(4, String.valueOf(lat));
+                insert.bindString(5, String.valueOf(lon));
+                insert.bindLong(6, GeoGrid.cellOf(lat, lon));
+                insert.executeInsert();
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void gridQuery_matchesFullScan() {
+        GazetteerDao dao = database.gazetteerDao();
+        double[][] points = new double[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            points[i] = new double[]{18 + random.nextDouble() * 36, 73 + random.nextDouble() * 62};
+        }
+
+        long gridStart = SystemClock.elapsedRealtimeNanos();
+        String[][] gridResults = new String[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            gridResults[i] = ids(dao.findNearest(points[i][0], points[i][1], K));
+        }
+        long gridNanos = SystemClock.elapsedRealtimeNanos() - gridStart;
+
+        long scanStart = SystemClock.elapsedRealtimeNanos();
+        String[][] scanResults = new String[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            scanResults[i] = scanNearest(points[i][0], points[i][1]);
+        }
+        long scanNanos = SystemClock.elapsedRealtimeNanos() - scanStart;
+
+        for (int i = 0; i < QUERIES; i++) {
+            assertArrayEquals("query " + i, scanResults[i], gridResults[i]);
+        }
+        Log.i(TAG, String.format("rows=%d k=%d grid=%.2fms/query scan=%.2fms/query",
+                ROWS, K, gridNanos / 1e6 / QUERIES, scanNanos / 1e6 / QUERIES));
+        assertTrue("grid query should beat a full scan", gridNanos < scanNanos);
+    }
+
+    private static String[] ids(List<GazetteerCity> cities) {
+        String[] ids = new String[cities.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = cities.get(i).locationId;
+        }
+        return ids;
+    }
+
+    /**
+     * 对照组：读取整表逐行计算距离
+     */
+    private String[] scanNearest(double latitude, double longitude) {
+        String[] best = new String[K];
+        double[] bestDistance = new double[K];
+        Arrays.fill(bestDistance, Double.MAX_VALUE);
+        SupportSQLiteDatabase db = database.getOpenHelper().getReadableDatabase();
+        try (Cursor cursor = db.query("SELECT locationId, latitude, longitude FROM gazetteer_city")) {
+            while (cursor.moveToNext()) {
+                double d = GeoGrid.distanceKm(latitude, longitude,
+                        Double.parseDouble(cursor.getString(1)), Double.parseDouble(cursor.getString(2)));
+                if (d >= bestDistance[K - 1]) {
+                    continue;
+                }
+                int index = K - 1;
+                while (index > 0 && bestDistance[index - 1] > d) {
+                    bestDistance[index] = bestDistance[index - 1];
+                    best[index] = best[index - 1];
+                    index--;
+                }
+                bestDistance[index] = d;
+                best[index] = cursor.getString(0);
+            }
+        }
+        return best;
+    }
+}
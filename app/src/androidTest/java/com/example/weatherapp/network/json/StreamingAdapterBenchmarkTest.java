@@ -0,0 +1,121 @@
+package com.example.weatherapp.network.json;
+
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weatherapp.models.SolarRadiationResponse;
+import com.example.weatherapp.models.WeatherResponse;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+/**
+ * 流式解析与Gson反射解析的基准测试
+ * 在录制的15d、72h、太阳辐射响应上比较两种方式的吞吐量和每次解析的对象分配数
+ */
+@RunWith(AndroidJUnit4.class)
+public class StreamingAdapterBenchmarkTest {
+
+    private static final String TAG = "StreamingAdapterBench";
+
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    private final Gson gson = new Gson();
+
+    @Test
+    public void weather15d_streamingBeatsReflection() throws IOException {
+        compare("weather_15d.json", WeatherResponse.class, new WeatherResponseAdapter());
+    }
+
+    @Test
+    public void gridWeather72h_streamingBeatsReflection() throws IOException {
+        compare("grid_weather_72h.json", WeatherResponse.class, new WeatherResponseAdapter());
+    }
+
+    @Test
+    public void solarRadiation_streamingBeatsReflection() throws IOException {
+        compare("solar_radiation.json", SolarRadiationResponse.class, new SolarRadiationResponseAdapter());
+    }
+
+    private <T> void compare(String name, Class<T> type, JsonModelReader<T> adapter) throws IOException {
+        String json = fixture(name);
+        Result reflection = measure(() -> gson.fromJson(new StringReader(json), type));
+        Result streaming = measure(() -> adapter.read(new JsonReader(new StringReader(json))));
+
+        Log.i(TAG, String.format("%s gson=%.0f ops/s %d allocs/op streaming=%.0f ops/s %d allocs/op",
+                name, reflection.opsPerSecond, reflection.allocsPerOp,
+                streaming.opsPerSecond, streaming.allocsPerOp));
+        assertTrue("streaming should allocate less than reflection", streaming.allocsPerOp < reflection.allocsPerOp);
+        assertTrue("streaming should be faster than reflection", streaming.opsPerSecond > reflection.opsPerSecond);
+    }
+
+    private interface Parser {
+        Object parse() throws IOException;
+    }
+
+    private static final class Result {
+        final double opsPerSecond;
+        final long allocsPerOp;
+
+        Result(double opsPerSecond, long allocsPerOp) {
+            this.opsPerSecond = opsPerSecond;
+            this.allocsPerOp = allocsPerOp;
+        }
+    }
+
+    /**
+     * 预热后分别统计耗时和分配数（分配计数会拖慢执行，两者分开测）
+     */
+    @SuppressWarnings("deprecation")
+    private static Result measure(Parser parser) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            assertNotNull(parser.parse());
+        }
+
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < ITERATIONS; i++) {
+            parser.parse();
+        }
+        long elapsed = SystemClock.elapsedRealtimeNanos() - start;
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            for (int i = 0; i < ITERATIONS; i++) {
+                parser.parse();
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        long allocations = Debug.getThreadAllocCount();
+        return new Result(ITERATIONS * 1e9 / elapsed, allocations / ITERATIONS);
+    }
+
+    private static String fixture(String name) throws IOException {
+        try (InputStream in = InstrumentationRegistry.getInstrumentation().getContext()
+                .getAssets().open("fixtures/" + name)) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+}
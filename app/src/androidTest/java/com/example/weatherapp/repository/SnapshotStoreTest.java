@@ -0,0 +1,117 @@
+package com.example.weatherapp.repository;
+
+import androidx.room.Room;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import com.example.weatherapp.database.AppDatabase;
+import com.example.weatherapp.database.WeatherSnapshotDao;
+import com.example.weatherapp.models.WeatherResponse;
+import com.example.weatherapp.models.WeatherSnapshot;
+import com.example.weatherapp.repository.WeatherBundle.Section;
+import com.example.weatherapp.repository.WeatherBundle.Status;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+/**
+ * 天气快照存储测试
+ * 使用内存数据库，校验快照的替换、按TTL和总大小清理，以及失败的部分保留上次的数据
+ */
+@RunWith(AndroidJUnit4.class)
+public class SnapshotStoreTest {
+
+    private static final String LOCATION_ID = "101010100";
+
+    private AppDatabase database;
+
+    @Before
+    public void setUp() {
+        database = Room.inMemoryDatabaseBuilder(
+                        InstrumentationRegistry.getInstrumentation().getTargetContext(),
+                        AppDatabase.class)
+                .allowMainThreadQueries()
+                .build();
+    }
+
+    @After
+    public void tearDown() {
+        database.close();
+    }
+
+    @Test
+    public void snapshotReplace_evictsExpiredAndOversizedLocations() {
+        WeatherSnapshotDao dao = database.weatherSnapshotDao();
+
+        dao.insertAll(Collections.singletonList(new WeatherSnapshot("expired", "NOW", "{}", 10, null)));
+        dao.insertAll(Collections.singletonList(new WeatherSnapshot("old", "NOW", "0123456789", 200, null)));
+        dao.replace("new", Arrays.asList(
+                new WeatherSnapshot("new", "NOW", "0123456789", 300, "2024-01-01T08:00+08:00"),
+                new WeatherSnapshot("new", "DAILY", "[]", 300, null)), 100, 15);
+
+        assertTrue(dao.getByLocationId("expired", 0).isEmpty());
+        assertTrue(dao.getByLocationId("old", 0).isEmpty());
+        assertEquals(2, dao.getByLocationId("new", 0).size());
+
+        // 同一部分再次写入时替换
+        dao.replace("new", Collections.singletonList(
+                new WeatherSnapshot("new", "NOW", "{}", 400, null)), 100, 15);
+        assertEquals(2, dao.getByLocationId("new", 0).size());
+        assertEquals(1, dao.getByLocationId("new", 350).size());
+    }
+
+    @Test
+    public void save_failedSectionsKeepPreviousSnapshot() {
+        SnapshotStore store = new SnapshotStore(database);
+        long first = System.currentTimeMillis() - 60_000;
+        long second = first + 30_000;
+
+        store.saveAsync(new WeatherBundle.Builder(LOCATION_ID, "北京", false)
+                .now(now("20"))
+                .status(Section.NOW, Status.OK)
+                .receivedAt(Section.NOW, first)
+                .daily(Collections.singletonList(daily("2024-01-01")))
+                .status(Section.DAILY, Status.OK)
+                .receivedAt(Section.DAILY, first)
+                .build(0)).join();
+
+        // 第二次刷新只有实时天气成功，逐日失败、逐小时超时
+        store.saveAsync(new WeatherBundle.Builder(LOCATION_ID, "北京", false)
+                .now(now("25"))
+                .status(Section.NOW, Status.OK)
+                .receivedAt(Section.NOW, second)
+                .status(Section.DAILY, Status.FAILED)
+                .status(Section.HOURLY, Status.TIMEOUT)
+                .build(0)).join();
+
+        WeatherBundle loaded = store.loadAsync(LOCATION_ID, "北京").join();
+        assertTrue(loaded.isFromCache());
+        assertTrue(loaded.isOk(Section.NOW));
+        assertEquals("25", loaded.getNow().getTemp());
+        assertEquals(second, loaded.getReceivedAt(Section.NOW));
+        assertTrue(loaded.isOk(Section.DAILY));
+        assertEquals(1, loaded.getDaily().size());
+        assertEquals("2024-01-01", loaded.getDaily().get(0).getFxDate());
+        assertEquals(first, loaded.getReceivedAt(Section.DAILY));
+        assertEquals(Status.FAILED, loaded.getStatus(Section.HOURLY));
+    }
+
+    private static WeatherResponse.Now now(String temp) {
+        WeatherResponse.Now now = new WeatherResponse.Now();
+        now.setTemp(temp);
+        return now;
+    }
+
+    private static WeatherResponse.Daily daily(String fxDate) {
+        WeatherResponse.Daily daily = new WeatherResponse.Daily();
+        daily.setFxDate(fxDate);
+        return daily;
+    }
+}
@@ -0,0 +1,216 @@
+package com.example.weatherapp.views;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.RecordingCanvas;
+import android.graphics.RenderNode;
+import android.os.Debug;
+import android.util.SparseArray;
+import android.view.View;
+import android.widget.HorizontalScrollView;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import androidx.test.platform.app.InstrumentationRegistry;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * 图表绘制的内存分配检查
+ * 设置数据并完成布局后，连续绘制多帧，统计绘制线程上的对象分配数，应为0
+ * 降雨量图表放在HorizontalScrollView中并录制到RenderNode，检查只绘制可见范围附近的柱子
+ */
+@RunWith(AndroidJUnit4.class)
+public class ChartAllocationTest {
+
+    private static final int FRAMES = 100;
+    private static final int SCREEN_WIDTH = 1080;
+    /** 10小时的分钟级降水，内容宽度远超一屏 */
+    private static final int PRECIP_POINTS = 120;
+
+    @Test
+    public void hourlyTimeline_drawDoesNotAllocate() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+            HourlyTimelineView view = new HourlyTimelineView(context);
+            int[] temperatures = new int[72];
+            String[] icons = new String[72];
+            String[] times = new String[72];
+            for (int i = 0; i < temperatures.length; i++) {
+                temperatures[i] = (int) (10 * Math.sin(i / 6.0));
+                icons[i] = i % 2 == 0 ? "100" : "305";
+                times[i] = (i % 24) + ":00";
+            }
+            view.setHourly(temperatures, icons, times);
+
+            assertEquals(0, countDrawAllocations(view, SCREEN_WIDTH));
+            // 滑动到中间后绘制的是另一段可见范围
+            view.scrollTo(SCREEN_WIDTH * 3, 0);
+            assertEquals(0, countDrawAllocations(view, SCREEN_WIDTH));
+        });
+    }
+
+    @Test
+    public void precipChart_drawDoesNotAllocate() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            CountingPrecipChartView view = hostedPrecipChart();
+            HorizontalScrollView scroller = (HorizontalScrollView) view.getParent();
+
+            assertEquals(0, countRecordAllocations(view));
+            scroller.scrollTo(SCREEN_WIDTH * 3, 0);
+            assertEquals(0, countRecordAllocations(view));
+        });
+    }
+
+    @Test
+    public void precipChart_drawsOnlyBarsNearVisibleWindow() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            CountingPrecipChartView view = hostedPrecipChart();
+            HorizontalScrollView scroller = (HorizontalScrollView) view.getParent();
+            int valueWidth = view.getWidth() / PRECIP_POINTS;
+
+            for (int scrollX : new int[]{0, SCREEN_WIDTH * 3, view.getWidth() - SCREEN_WIDTH}) {
+                scroller.scrollTo(scrollX, 0);
+                record(view);
+                // 硬件加速时View的裁剪区域是整个内容宽度，只能靠外层的可见范围（前后各多留一屏）裁剪
+                int first = Math.max(0, (scroller.getScrollX() - SCREEN_WIDTH) / valueWidth);
+                int last = Math.min(PRECIP_POINTS - 1, (scroller.getScrollX() + 2 * SCREEN_WIDTH) / valueWidth);
+                assertEquals(first, view.drawnFirst);
+                assertEquals(last, view.drawnLast);
+                assertTrue(view.drawnLast - view.drawnFirst + 1 < PRECIP_POINTS);
+            }
+        });
+    }
+
+    @Test
+    public void precipChart_scrollWithinDrawnRangeDoesNotInvalidate() {
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(() -> {
+            CountingPrecipChartView view = hostedPrecipChart();
+            HorizontalScrollView scroller = (HorizontalScrollView) view.getParent();
+            scroller.scrollTo(SCREEN_WIDTH * 2, 0);
+            record(view);
+            view.invalidations = 0;
+
+            // 已绘制范围为[SCREEN_WIDTH, SCREEN_WIDTH * 4]，可见范围仍在其中
+            scroller.scrollTo(SCREEN_WIDTH * 2 + SCREEN_WIDTH / 2, 0);
+            view.onParentScrolled();
+            scroller.scrollTo(SCREEN_WIDTH * 3, 0);
+            view.onParentScrolled();
+            assertEquals(0, view.invalidations);
+
+            // 可见范围超出已绘制范围
+            scroller.scrollTo(SCREEN_WIDTH * 3 + SCREEN_WIDTH / 2, 0);
+            view.onParentScrolled();
+            assertEquals(1, view.invalidations);
+        });
+    }
+
+    /**
+     * 与布局文件一样放在HorizontalScrollView中，宽度为一屏，内容远宽于一屏
+     */
+    private static CountingPrecipChartView hostedPrecipChart() {
+        Context context = InstrumentationRegistry.getInstrumentation().getTargetContext();
+        CountingPrecipChartView view = new CountingPrecipChartView(context);
+        float[] precipitations = new float[PRECIP_POINTS];
+        SparseArray<String> times = new SparseArray<>();
+        for (int i = 0; i < precipitations.length; i++) {
+            precipitations[i] = i % 7 == 0 ? 0f : (i % 13) / 10f;
+            if (i % 2 == 0) {
+                times.put(i, String.valueOf(i * 5));
+            }
+        }
+        view.setPrecipitations(precipitations, 5, times);
+
+        HorizontalScrollView scroller = new HorizontalScrollView(context);
+        scroller.addView(view);
+        scroller.measure(View.MeasureSpec.makeMeasureSpec(SCREEN_WIDTH, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        scroller.layout(0, 0, scroller.getMeasuredWidth(), scroller.getMeasuredHeight());
+        assertTrue(view.getWidth() > SCREEN_WIDTH * 5);
+        return view;
+    }
+
+    /**
+     * 像硬件加速绘制一样把View录制到自己的RenderNode中（裁剪区域为整个View）
+     */
+    private static void record(View view) {
+        record(view, new RenderNode("test"));
+    }
+
+    private static void record(View view, RenderNode node) {
+        node.setPosition(0, 0, view.getWidth(), view.getHeight());
+        RecordingCanvas canvas = node.beginRecording();
+        try {
+            view.draw(canvas);
+        } finally {
+            node.endRecording();
+        }
+    }
+
+    /**
+     * 先录制一帧预热（首次录制网格线和时间标签等图层），再统计FRAMES帧的分配数
+     */
+    static int countRecordAllocations(View view) {
+        RenderNode node = new RenderNode("test");
+        record(view, node);
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            for (int i = 0; i < FRAMES; i++) {
+                record(view, node);
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        return Debug.getThreadAllocCount();
+    }
+
+    /**
+     * 布局后先绘制一帧预热（首次绘制可能初始化字体缓存等），再统计FRAMES帧的分配数
+     * @param width View宽度
+     */
+    @SuppressWarnings("deprecation")
+    static int countDrawAllocations(View view, int width) {
+        view.measure(View.MeasureSpec.makeMeasureSpec(width, View.MeasureSpec.EXACTLY),
+                View.MeasureSpec.makeMeasureSpec(0, View.MeasureSpec.UNSPECIFIED));
+        view.layout(0, 0, view.getMeasuredWidth(), view.getMeasuredHeight());
+        Bitmap bitmap = Bitmap.createBitmap(view.getWidth(), view.getHeight(), Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        view.draw(canvas);
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            for (int i = 0; i < FRAMES; i++) {
+                view.draw(canvas);
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        int allocations = Debug.getThreadAllocCount();
+        bitmap.recycle();
+        return allocations;
+    }
+
+    /**
+     * 统计invalidate调用次数
+     */
+    static class CountingPrecipChartView extends PrecipChartView {
+        int invalidations;
+
+        CountingPrecipChartView(Context context) {
+            super(context);
+        }
+
+        @Override
+        public void invalidate() {
+            invalidations++;
+            super.invalidate();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.weatherapp;
+
+import android.os.Bundle;
+import android.util.Log;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import androidx.appcompat.app.AppCompatActivity;
+
+import com.example.weatherapp.database.CityCache;
+import com.example.weatherapp.database.QueryProfiler;
+import com.example.weatherapp.network.CoalescingCallAdapterFactory;
+import com.example.weatherapp.network.NetworkMetrics;
+import com.example.weatherapp.network.RequestScheduler;
+import com.example.weatherapp.network.ResilienceInterceptor;
+import com.example.weatherapp.network.ResponseCachePolicy;
+import com.example.weatherapp.network.TrafficCounter;
+import com.example.weatherapp.utils.SharedPrefsUtils;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * 调试Activity
+ * 显示网络层的统计数据（缓存命中、请求合并、请求排队、重试与熔断、流量、各阶段耗时）、城市缓存命中率和数据库语句耗时，可导出到文件
+ * 仅在debug包中通过长按导航按钮进入
+ */
+public class DebugActivity extends AppCompatActivity {
+
+    private static final String TAG = "DebugActivity";
+
+    private TextView debugText;
+    private Button queryProfilerButton;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_debug);
+
+        debugText = findViewById(R.id.debug_text);
+        Button refreshButton = findViewById(R.id.debug_refresh);
+        Button exportButton = findViewById(R.id.debug_export);
+        Button resetButton = findViewById(R.id.debug_reset);
+        queryProfilerButton = findViewById(R.id.debug_query_profiler);
+
+        refreshButton.setOnClickListener(v -> render());
+        exportButton.setOnClickListener(v -> export());
+        resetButton.setOnClickListener(v -> {
+            ResponseCachePolicy.resetStats();
+            CoalescingCallAdapterFactory.resetCounts();
+            TrafficCounter.reset();
+            NetworkMetrics.reset();
+            CityCache.getInstance(this).resetStats();
+            QueryProfiler.getInstance().reset();
+            render();
+        });
+        queryProfilerButton.setOnClickListener(v -> {
+            boolean enabled = !QueryProfiler.getInstance().isEnabled();
+            QueryProfiler.getInstance().setEnabled(enabled);
+            SharedPrefsUtils.setQueryProfilerEnabled(this, enabled);
+            render();
+        });
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        render();
+    }
+
+    private void render() {
+        queryProfilerButton.setText(QueryProfiler.getInstance().isEnabled() ? "SQL统计:开" : "SQL统计:关");
+        debugText.setText(buildReport());
+    }
+
+    /**
+     * 汇总所有统计数据
+     */
+    private String buildReport() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("== 响应缓存 ==\n").append(ResponseCachePolicy.dumpStats()).append('\n');
+        sb.append("\n== 请求合并 ==\n")
+                .append("issued=").append(CoalescingCallAdapterFactory.getIssuedCount())
+                .append(" saved=").append(CoalescingCallAdapterFactory.getSavedCount()).append('\n');
+        sb.append("\n== 请求排队 ==\n").append(RequestScheduler.getInstance().dump());
+        sb.append("\n== 重试与熔断 ==\n").append(ResilienceInterceptor.dump());
+        sb.append("\n== 流量 ==\n").append(TrafficCounter.dump());
+        sb.append("\n== 阶段耗时 ==\n").append(NetworkMetrics.dump());
+        sb.append("\n== 城市缓存 ==\n").append(CityCache.getInstance(this).dump());
+        sb.append("\n== 数据库语句 ==\n").append(QueryProfiler.getInstance().dump());
+        return sb.toString();
+    }
+
+    /**
+     * 导出到应用外部文件目录，可通过adb pull获取
+     */
+    private void export() {
+        File dir = getExternalFilesDir(null);
+        if (dir == null) {
+            dir = getFilesDir();
+        }
+        File file = new File(dir, "network_metrics_" + System.currentTimeMillis() + ".txt");
+        try (Writer writer = new FileWriter(file)) {
+            writer.write(buildReport());
+            Toast.makeText(this, "已导出到 " + file.getAbsolutePath(), Toast.LENGTH_LONG).show();
+        } catch (IOException e) {
+            Log.e(TAG, "导出失败", e);
+            Toast.makeText(this, "导出失败", Toast.LENGTH_SHORT).show();
+        }
+    }
+}
@@ -7,29 +7,65 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.weatherapp.adapters.CityAdapter;
-import com.example.weatherapp.database.AppDatabase;
-import com.example.weatherapp.database.CityDao;
+import com.example.weatherapp.database.CityCache;
 import com.example.weatherapp.models.City;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
  * 删除城市Activity
  * 显示城市列表，点击城市可删除
+ * 点击后先从列表中移除，离开页面时在一个事务中批量删除
  */
 public class DeleteCityActivity extends AppCompatActivity {
 
+    private CityCache cityCache;
+    private final List<String> pendingLocationIds = new ArrayList<>();
+
     @Override
     protected void onCreate(Bundle savedInstanceState) {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_delete_city);
 
-        CityDao cityDao = AppDatabase.getInstance(this).cityDao();
         RecyclerView recyclerView = findViewById(R.id.delete_city_recycler);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
-        List<City> cities = cityDao.getAllCities();
-        CityAdapter adapter = new CityAdapter(this, cities, true);
-        recyclerView.setAdapter(adapter);
+        cityCache = CityCache.getInstance(this);
+        cityCache.getAllAsync().thenAcceptAsync(cities -> {
+            if (isDestroyed()) {
+                return;
+            }
+            CityAdapter adapter = new CityAdapter(this, cities, true);
+            adapter.setOnCityDeleteListener(this::onCityDelete);
+            recyclerView.setAdapter(adapter);
+        }, getMainExecutor());
+    }
+
+    private void onCityDelete(City city) {
+        String locationId = city.getLocationId();
+        if (locationId == null || locationId.isEmpty()) {
+            // 旧数据可能没有locationId，按名称单独删除
+            cityCache.deleteByNameAsync(city.getName());
+        } else {
+            pendingLocationIds.add(locationId);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        flushDeletes();
+    }
+
+    /**
+     * 提交攒下的删除；内存中的城市同步移除，返回城市列表时不会再显示
+     */
+    private void flushDeletes() {
+        if (pendingLocationIds.isEmpty()) {
+            return;
+        }
+        cityCache.deleteByLocationIdsAsync(new ArrayList<>(pendingLocationIds));
+        pendingLocationIds.clear();
     }
 }
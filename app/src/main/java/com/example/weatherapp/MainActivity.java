@@ -1,13 +1,16 @@
 package com.example.weatherapp;
 
 import android.content.Intent;
+import android.content.pm.ApplicationInfo;
 import android.os.Bundle;
+import android.util.SparseArray;
 import android.view.View;
 import android.widget.Button;
 import android.widget.ImageButton;
 import android.widget.ImageView;
 import android.widget.LinearLayout;
 import android.widget.TextView;
+import android.widget.Toast;
 import androidx.appcompat.app.AlertDialog;
 import androidx.appcompat.app.AppCompatActivity;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -15,32 +18,26 @@ import androidx.recyclerview.widget.RecyclerView;
 import androidx.swiperefreshlayout.widget.SwipeRefreshLayout;
 
 import com.example.weatherapp.adapters.DailyForecastAdapter;
-import com.example.weatherapp.views.TemperatureChartView;
+import com.example.weatherapp.views.HourlyTimelineView;
 import com.example.weatherapp.views.PrecipChartView;
-import android.widget.HorizontalScrollView;
-import com.example.weatherapp.database.AppDatabase;
-import com.example.weatherapp.database.CityDao;
+import com.example.weatherapp.database.CityCache;
+import com.example.weatherapp.database.QueryProfiler;
 import com.example.weatherapp.models.AirQualityResponse;
-import com.example.weatherapp.models.City;
-import com.example.weatherapp.models.GeoCityResponse;
 import com.example.weatherapp.models.MinutelyResponse;
 import com.example.weatherapp.models.SolarRadiationResponse;
 import com.example.weatherapp.models.SunResponse;
 import com.example.weatherapp.models.WeatherResponse;
-import com.example.weatherapp.network.ApiClient;
-import com.example.weatherapp.network.WeatherService;
+import com.example.weatherapp.repository.WeatherBundle;
+import com.example.weatherapp.repository.WeatherRepository;
 import com.example.weatherapp.utils.Constants;
 import com.example.weatherapp.utils.DateUtils;
 import com.example.weatherapp.utils.SharedPrefsUtils;
 import com.example.weatherapp.utils.WeatherIconUtils;
 
-import java.util.ArrayList;
 import java.util.Date;
+import java.util.EnumMap;
 import java.util.List;
-
-import retrofit2.Call;
-import retrofit2.Callback;
-import retrofit2.Response;
+import java.util.Map;
 
 /**
  * 主页面Activity
@@ -48,18 +45,26 @@ import retrofit2.Response;
  */
 public class MainActivity extends AppCompatActivity {
 
+    /** 分钟级降水：未来2小时，每5分钟一个数据点 */
+    private static final int MINUTELY_POINTS = 24;
+    private static final int MINUTELY_STEP_MINUTES = 5;
+
+    /**
+     * 开关数据库语句耗时统计，只在debug包中生效（MainActivity是导出的，正式包不接受外部应用传入的开关）：
+     * adb shell am start -n com.example.weatherapp/.MainActivity --ez query_profiler true
+     */
+    private static final String EXTRA_QUERY_PROFILER = "query_profiler";
+
     // ==================== UI组件 ====================
     // 基础信息显示
     private TextView tvLowTemp, tvTemperature, tvHighTemp, tvCity, tvDayOfWeek, tvWeather;
     private ImageView imageView;
     private TextView tvAirQuality, tvTempRange;
+    private TextView tvDataAge;
     private Button btnAirQuality;
 
     // 24小时预报
-    private LinearLayout hourlyForecastContainer;
-    private HorizontalScrollView temperatureChartScroll;
-    private HorizontalScrollView hourlyIconsScroll;
-    private TemperatureChartView temperatureLineChart;
+    private HourlyTimelineView hourlyTimeline;
 
     // 15天预报
     private RecyclerView dailyForecastRecycler;
@@ -81,8 +86,12 @@ public class MainActivity extends AppCompatActivity {
     private SwipeRefreshLayout swipeRefreshLayout;
 
     // ==================== 数据源和状态 ====================
-    private WeatherService weatherService;
-    private CityDao cityDao;
+    private WeatherRepository weatherRepository;
+    private WeatherRepository.Load currentLoad;
+    private WeatherRepository.Cancellable staleLoad;
+    // 当前城市各部分已显示数据的接收时间，用于只更新有变化的部分
+    private final Map<WeatherBundle.Section, Long> renderedAt = new EnumMap<>(WeatherBundle.Section.class);
+    private CityCache cityCache;
     private String currentLocationId;
     private String currentCityName;
     private String airQualityHealthEffect = "";
@@ -92,6 +101,7 @@ public class MainActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_main);
 
+        applyQueryProfilerSwitch();
         bindViews();
         initDataSources();
         handleIntent();
@@ -102,8 +112,22 @@ public class MainActivity extends AppCompatActivity {
      * 初始化数据源
      */
     private void initDataSources() {
-        cityDao = AppDatabase.getInstance(this).cityDao();
-        weatherService = ApiClient.getClient().create(WeatherService.class);
+        cityCache = CityCache.getInstance(this);
+        weatherRepository = new WeatherRepository(this);
+    }
+
+    /**
+     * debug包的Intent带有query_profiler参数时开关数据库语句统计并保存，重启后仍然生效
+     */
+    private void applyQueryProfilerSwitch() {
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) == 0
+                || !getIntent().hasExtra(EXTRA_QUERY_PROFILER)) {
+            return;
+        }
+        boolean enabled = getIntent().getBooleanExtra(EXTRA_QUERY_PROFILER, false);
+        QueryProfiler.getInstance().setEnabled(enabled);
+        SharedPrefsUtils.setQueryProfilerEnabled(this, enabled);
+        Toast.makeText(this, enabled ? "SQL统计:开" : "SQL统计:关", Toast.LENGTH_SHORT).show();
     }
 
     /**
@@ -126,38 +150,29 @@ public class MainActivity extends AppCompatActivity {
         }
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelLoads();
+    }
+
     /**
      * 设置导航按钮
      */
     private void setupNavigationButton() {
         ImageButton btn = findViewById(R.id.btn);
         btn.setOnClickListener(v -> startActivity(new Intent(this, SecondActivity.class)));
+        // debug包长按进入网络统计调试页
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            btn.setOnLongClickListener(v -> {
+                startActivity(new Intent(this, DebugActivity.class));
+                return true;
+            });
+        }
     }
 
     // ==================== 第一部分：工具方法 ====================
 
-    /**
-     * 设置折线图和图标容器的同步滑动
-     */
-    private void setupSynchronizedScrolling() {
-        if (temperatureChartScroll == null || hourlyIconsScroll == null) {
-            return;
-        }
-
-        // 使用自定义ScrollView监听器实现同步滑动
-        temperatureChartScroll.setOnScrollChangeListener((v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
-            if (hourlyIconsScroll != null && hourlyIconsScroll.getScrollX() != scrollX) {
-                hourlyIconsScroll.scrollTo(scrollX, 0);
-            }
-        });
-
-        hourlyIconsScroll.setOnScrollChangeListener((v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
-            if (temperatureChartScroll != null && temperatureChartScroll.getScrollX() != scrollX) {
-                temperatureChartScroll.scrollTo(scrollX, 0);
-            }
-        });
-    }
-
     // ==================== 第二部分：数据库相关代码 (约35行) ====================
 
     /**
@@ -176,30 +191,39 @@ public class MainActivity extends AppCompatActivity {
      * 从数据库加载第一个城市
      */
     private void loadFirstCityFromDatabase() {
-        List<City> cities = cityDao.getAllCities();
-        if (cities != null && !cities.isEmpty()) {
-            loadCityAndFetchData(cities.get(0).getName());
-        } else {
-            tvCity.setText("暂无城市");
-        }
+        cityCache.getAllAsync().thenAcceptAsync(cities -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (cities != null && !cities.isEmpty()) {
+                loadCityAndFetchData(cities.get(0).getName());
+            } else {
+                tvCity.setText("暂无城市");
+            }
+        }, getMainExecutor());
     }
 
     /**
      * 根据城市名加载城市信息并获取天气数据
      */
     private void loadCityAndFetchData(String cityName) {
-        City city = cityDao.getCityByName(cityName);
-        if (city != null && city.getLocationId() != null) {
-            fetchWeatherData(city.getLocationId(), cityName);
-        } else {
-            tvCity.setText("城市信息未找到");
-        }
+        cityCache.getByNameAsync(cityName).thenAcceptAsync(city -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (city != null && city.getLocationId() != null) {
+                fetchWeatherData(city.getLocationId(), cityName);
+            } else {
+                tvCity.setText("城市信息未找到");
+            }
+        }, getMainExecutor());
     }
 
-    // ==================== 第三部分：API相关代码 (约530行) ====================
+    // ==================== 第三部分：API相关代码 (约55行) ====================
 
     /**
-     * 请求天气数据（实时天气、15天预报、24小时预报、空气质量、分钟级降水）
+     * 请求天气数据（实时天气、15天预报、24小时预报、空气质量、日出日落、太阳辐射、分钟级降水）
+     * 所有部分并行请求，完成或超时后一次性更新UI
      */
     private void fetchWeatherData(String locationId, String cityName) {
         if (Constants.QWEATHER_API_KEY == null || Constants.QWEATHER_API_KEY.isEmpty()) {
@@ -208,406 +232,128 @@ public class MainActivity extends AppCompatActivity {
             return;
         }
 
+        // 切换城市时清空已显示部分的记录
+        if (!locationId.equals(currentLocationId)) {
+            renderedAt.clear();
+        }
+
         // 保存当前城市信息，用于下拉刷新
         currentLocationId = locationId;
         currentCityName = cityName;
 
-        final WeatherResponse weatherResult = new WeatherResponse();
-        weatherResult.setCityName(cityName);
-        final AirQualityResponse[] airResult = {new AirQualityResponse()};
-        final boolean[] nowOk = {false};
-        final boolean[] dailyOk = {false};
-        final boolean[] airOk = {false};
-
-        Runnable updateUI = () -> {
-            if (nowOk[0] && dailyOk[0]) {
-                runOnUiThread(() -> {
-                    updateWeatherUI(weatherResult, airResult[0]);
-                    stopRefreshAnimation();
-                });
-            }
-        };
-
-        Runnable updateAirQuality = () -> {
-            if (airOk[0]) {
-                runOnUiThread(() -> updateAirQualityUI(airResult[0]));
-            }
-        };
-
-        fetchRealTimeWeather(locationId, weatherResult, nowOk, updateUI);
-        fetchDailyForecast(locationId, weatherResult, dailyOk, updateUI);
-        fetchHourlyForecast(locationId);
-        fetchAirQuality(locationId, airResult, airOk, updateAirQuality);
-        fetchSunriseSunset(cityName);
-        fetchSolarRadiation(cityName);
-        fetchMinutelyPrecipitation(locationId);
+        // 新的刷新开始时，放弃上一次未完成的加载
+        cancelLoads();
+        // 先显示本地快照中的上次数据，同时从网络刷新（stale-while-revalidate）
+        staleLoad = weatherRepository.loadCached(locationId, cityName, this::renderStaleBundle);
+        currentLoad = weatherRepository.load(locationId, cityName, this::renderWeatherBundle);
     }
 
-    /**
-     * 获取实时天气
-     */
-    private void fetchRealTimeWeather(String locationId, final WeatherResponse weatherResult,
-                                      final boolean[] nowOk, final Runnable updateUI) {
-        weatherService.getWeatherNow(locationId, Constants.QWEATHER_API_KEY)
-                .enqueue(new Callback<WeatherResponse>() {
-                    @Override
-                    public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
-                        if (response.isSuccessful() && response.body() != null &&
-                                "200".equals(response.body().getCode())) {
-                            weatherResult.setNow(response.body().getNow());
-                            nowOk[0] = true;
-                            updateUI.run();
-                        } else {
-                            runOnUiThread(() -> stopRefreshAnimation());
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                        runOnUiThread(() -> stopRefreshAnimation());
-                    }
-                });
-    }
-
-    /**
-     * 获取15天预报
-     * 优化：如果主API失败，尝试使用格点API作为备用方案
-     */
-    private void fetchDailyForecast(String locationId, final WeatherResponse weatherResult,
-                                    final boolean[] dailyOk, final Runnable updateUI) {
-        weatherService.getWeather15d(locationId, Constants.QWEATHER_API_KEY)
-                .enqueue(new Callback<WeatherResponse>() {
-                    @Override
-                    public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
-                        if (response.isSuccessful() && response.body() != null &&
-                                "200".equals(response.body().getCode())) {
-                            weatherResult.setDaily(response.body().getDaily());
-                            dailyOk[0] = true;
-                            updateUI.run();
-                        } else {
-                            // 主API失败，尝试使用格点API作为备用
-                            tryGridDailyForecast(locationId, weatherResult, dailyOk, updateUI);
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                        // 主API失败，尝试使用格点API作为备用
-                        tryGridDailyForecast(locationId, weatherResult, dailyOk, updateUI);
-                    }
-                });
-    }
-
-    /**
-     * 使用格点API获取15天预报（备用方案）
-     */
-    private void tryGridDailyForecast(String locationId, final WeatherResponse weatherResult,
-                                      final boolean[] dailyOk, final Runnable updateUI) {
-        // 尝试从数据库获取经纬度
-        City city = cityDao.getCityByLocationId(locationId);
-        if (city != null && city.getLatitude() != null && city.getLongitude() != null &&
-                !city.getLatitude().isEmpty() && !city.getLongitude().isEmpty()) {
-            String location = city.getLatitude() + "," + city.getLongitude();
-            weatherService.getGridWeatherDaily(location, Constants.QWEATHER_API_KEY)
-                    .enqueue(new Callback<WeatherResponse>() {
-                        @Override
-                        public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
-                            if (response.isSuccessful() && response.body() != null &&
-                                    "200".equals(response.body().getCode())) {
-                                weatherResult.setDaily(response.body().getDaily());
-                                dailyOk[0] = true;
-                                updateUI.run();
-                            }
-                        }
-
-                        @Override
-                        public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                            // 格点API也失败，保持dailyOk为false
-                        }
-                    });
+    private void cancelLoads() {
+        if (staleLoad != null) {
+            staleLoad.cancel();
+            staleLoad = null;
         }
-    }
-
-    /**
-     * 获取24小时预报
-     * 优化：如果主API失败，尝试使用格点API作为备用方案
-     */
-    private void fetchHourlyForecast(String locationId) {
-        weatherService.getWeather24h(locationId, Constants.QWEATHER_API_KEY)
-                .enqueue(new Callback<WeatherResponse>() {
-                    @Override
-                    public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
-                        if (response.isSuccessful() && response.body() != null &&
-                                "200".equals(response.body().getCode())) {
-                            runOnUiThread(() -> updateHourlyForecast(response.body().getHourly()));
-                        } else {
-                            // 主API失败，尝试使用格点API作为备用
-                            tryGridHourlyForecast(locationId);
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                        // 主API失败，尝试使用格点API作为备用
-                        tryGridHourlyForecast(locationId);
-                    }
-                });
-    }
-
-    /**
-     * 使用格点API获取24小时预报（备用方案）
-     */
-    private void tryGridHourlyForecast(String locationId) {
-        // 尝试从数据库获取经纬度
-        City city = cityDao.getCityByLocationId(locationId);
-        if (city != null && city.getLatitude() != null && city.getLongitude() != null &&
-                !city.getLatitude().isEmpty() && !city.getLongitude().isEmpty()) {
-            String location = city.getLatitude() + "," + city.getLongitude();
-            weatherService.getGridWeatherHourly(location, Constants.QWEATHER_API_KEY)
-                    .enqueue(new Callback<WeatherResponse>() {
-                        @Override
-                        public void onResponse(Call<WeatherResponse> call, Response<WeatherResponse> response) {
-                            if (response.isSuccessful() && response.body() != null &&
-                                    "200".equals(response.body().getCode())) {
-                                runOnUiThread(() -> updateHourlyForecast(response.body().getHourly()));
-                            }
-                        }
-
-                        @Override
-                        public void onFailure(Call<WeatherResponse> call, Throwable t) {
-                            // 格点API也失败，不更新UI
-                        }
-                    });
+        if (currentLoad != null) {
+            currentLoad.cancel();
+            currentLoad = null;
         }
     }
 
     /**
-     * 获取空气质量
+     * 显示快照中的上次数据，网络数据已经返回时忽略
      */
-    private void fetchAirQuality(String locationId, final AirQualityResponse[] airResult,
-                                 final boolean[] airOk, final Runnable updateAirQuality) {
-        weatherService.getAirQuality(locationId, Constants.QWEATHER_API_KEY)
-                .enqueue(new Callback<AirQualityResponse>() {
-                    @Override
-                    public void onResponse(Call<AirQualityResponse> call, Response<AirQualityResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            AirQualityResponse body = response.body();
-                            if ("200".equals(body.getCode())) {
-                                if (body.getIndexes() != null && !body.getIndexes().isEmpty()) {
-                                    airResult[0] = body;
-                                } else if (body.getNow() != null) {
-                                    airResult[0] = body;
-                                }
-                                airOk[0] = true;
-                                updateAirQuality.run();
-                            } else {
-                                fetchAirQualityByCoordinates(locationId, airResult, airOk, updateAirQuality);
-                            }
-                        } else {
-                            fetchAirQualityByCoordinates(locationId, airResult, airOk, updateAirQuality);
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<AirQualityResponse> call, Throwable t) {
-                        fetchAirQualityByCoordinates(locationId, airResult, airOk, updateAirQuality);
-                    }
-                });
+    private void renderStaleBundle(WeatherBundle bundle) {
+        staleLoad = null;
+        if (currentLoad == null) {
+            return;
+        }
+        renderChangedSections(bundle);
+        updateDataAge();
     }
 
     /**
-     * 通过经纬度获取空气质量（备用方案）
-     * 优化：优先使用存储的经纬度，避免额外的API调用
+     * 网络刷新完成，只更新与已显示数据不同的部分
      */
-    private void fetchAirQualityByCoordinates(String locationId, final AirQualityResponse[] airResult,
-                                              final boolean[] airOk, final Runnable updateAirQuality) {
-        // 尝试从数据库获取存储的经纬度
-        City city = cityDao.getCityByLocationId(locationId);
-        if (city != null && city.getLatitude() != null && city.getLongitude() != null &&
-                !city.getLatitude().isEmpty() && !city.getLongitude().isEmpty()) {
-            // 直接使用存储的经纬度
-            weatherService.getAirQualityByCoordinates(city.getLatitude(), city.getLongitude(),
-                            Constants.QWEATHER_API_KEY, "zh")
-                    .enqueue(new Callback<AirQualityResponse>() {
-                        @Override
-                        public void onResponse(Call<AirQualityResponse> call,
-                                               Response<AirQualityResponse> response) {
-                            if (response.isSuccessful() && response.body() != null) {
-                                airResult[0] = response.body();
-                            }
-                            airOk[0] = true;
-                            updateAirQuality.run();
-                        }
-
-                        @Override
-                        public void onFailure(Call<AirQualityResponse> call, Throwable t) {
-                            airOk[0] = true;
-                            updateAirQuality.run();
-                        }
-                    });
-            return;
+    private void renderWeatherBundle(WeatherBundle bundle) {
+        currentLoad = null;
+        if (staleLoad != null) {
+            staleLoad.cancel();
+            staleLoad = null;
         }
 
-        // 如果没有存储的经纬度，则通过API获取（原有逻辑）
-        WeatherService geoApi = ApiClient.getClient().create(WeatherService.class);
-        geoApi.searchCity(locationId, Constants.QWEATHER_API_KEY, null, null, 1, "zh")
-                .enqueue(new Callback<GeoCityResponse>() {
-                    @Override
-                    public void onResponse(Call<GeoCityResponse> call, Response<GeoCityResponse> response) {
-                        if (response.isSuccessful() && response.body() != null &&
-                                "200".equals(response.body().code) &&
-                                response.body().location != null &&
-                                !response.body().location.isEmpty()) {
-                            GeoCityResponse.Location loc = response.body().location.get(0);
-                            String latitude = loc.lat;
-                            String longitude = loc.lon;
-
-                            if (latitude != null && longitude != null &&
-                                    !latitude.isEmpty() && !longitude.isEmpty()) {
-                                weatherService.getAirQualityByCoordinates(latitude, longitude,
-                                                Constants.QWEATHER_API_KEY, "zh")
-                                        .enqueue(new Callback<AirQualityResponse>() {
-                                            @Override
-                                            public void onResponse(Call<AirQualityResponse> call,
-                                                                   Response<AirQualityResponse> response) {
-                                                if (response.isSuccessful() && response.body() != null) {
-                                                    airResult[0] = response.body();
-                                                }
-                                                airOk[0] = true;
-                                                updateAirQuality.run();
-                                            }
-
-                                            @Override
-                                            public void onFailure(Call<AirQualityResponse> call, Throwable t) {
-                                                airOk[0] = true;
-                                                updateAirQuality.run();
-                                            }
-                                        });
-                            } else {
-                                airOk[0] = true;
-                                updateAirQuality.run();
-                            }
-                        } else {
-                            airOk[0] = true;
-                            updateAirQuality.run();
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<GeoCityResponse> call, Throwable t) {
-                        airOk[0] = true;
-                        updateAirQuality.run();
-                    }
-                });
+        renderChangedSections(bundle);
+        // 失败时也更新空气质量和分钟级降水，用于显示错误提示
+        if (bundle.getStatus(WeatherBundle.Section.AIR) == WeatherBundle.Status.FAILED
+                && !renderedAt.containsKey(WeatherBundle.Section.AIR)) {
+            updateAirQualityUI(bundle.getAirQuality());
+        }
+        if (!bundle.isOk(WeatherBundle.Section.MINUTELY) && bundle.getMinutely() != null
+                && !renderedAt.containsKey(WeatherBundle.Section.MINUTELY)) {
+            updateMinutelyPrecipitation(bundle.getMinutely());
+        }
+        updateDataAge();
+        stopRefreshAnimation();
     }
 
     /**
-     * 获取分钟级降水预报
+     * 更新成功获取、且接收时间与已显示数据不同的部分
+     * 网络请求命中未过期的HTTP缓存时接收时间不变，对应部分不会重复绘制
      */
-    private void fetchMinutelyPrecipitation(String locationId) {
-        if (locationId == null || locationId.isEmpty()) {
-            return;
+    private void renderChangedSections(WeatherBundle bundle) {
+        boolean nowChanged = isChanged(bundle, WeatherBundle.Section.NOW);
+        boolean dailyChanged = isChanged(bundle, WeatherBundle.Section.DAILY);
+        if (nowChanged) {
+            updateWeatherUI(bundle.toWeatherResponse(), bundle.getAirQuality());
+        } else if (dailyChanged) {
+            updateDailyForecast(bundle.getDaily(), DateUtils.getCurrentDate());
+        }
+        if (isChanged(bundle, WeatherBundle.Section.HOURLY)) {
+            updateHourlyForecast(bundle.getHourly());
+        }
+        if (isChanged(bundle, WeatherBundle.Section.AIR)) {
+            updateAirQualityUI(bundle.getAirQuality());
+        }
+        if (isChanged(bundle, WeatherBundle.Section.SUN)) {
+            updateSunriseSunsetUI(bundle.getSun());
+        }
+        if (isChanged(bundle, WeatherBundle.Section.SOLAR)) {
+            updateSolarRadiationUI(bundle.getSolarForecast());
+        }
+        if (isChanged(bundle, WeatherBundle.Section.MINUTELY)) {
+            updateMinutelyPrecipitation(bundle.getMinutely());
         }
 
-        // 尝试从数据库获取经纬度
-        City city = cityDao.getCityByLocationId(locationId);
-        String location = null;
+        for (WeatherBundle.Section section : WeatherBundle.Section.values()) {
+            if (bundle.isOk(section)) {
+                renderedAt.put(section, bundle.getReceivedAt(section));
+            }
+        }
+    }
 
-        if (city != null && city.getLatitude() != null && city.getLongitude() != null &&
-                !city.getLatitude().isEmpty() && !city.getLongitude().isEmpty()) {
-            // 数据库中有经纬度，直接使用
-            // 注意：和风天气API要求格式为"经度,纬度"（lon,lat），不是"纬度,经度"
-            location = city.getLongitude() + "," + city.getLatitude();
-            fetchMinutelyPrecipitationByLocation(location);
-        } else {
-            // 如果没有经纬度，尝试通过API获取
-            // 注意：searchCity API的location参数可以是城市名称或locationId
-            WeatherService geoApi = ApiClient.getClient().create(WeatherService.class);
-            geoApi.searchCity(locationId, Constants.QWEATHER_API_KEY, null, null, 1, "zh")
-                    .enqueue(new Callback<GeoCityResponse>() {
-                        @Override
-                        public void onResponse(Call<GeoCityResponse> call, Response<GeoCityResponse> response) {
-                            if (response.isSuccessful() && response.body() != null) {
-                                String code = response.body().code;
-                                if ("200".equals(code) &&
-                                        response.body().location != null &&
-                                        !response.body().location.isEmpty()) {
-                                    GeoCityResponse.Location loc = response.body().location.get(0);
-                                    if (loc.lat != null && loc.lon != null &&
-                                            !loc.lat.isEmpty() && !loc.lon.isEmpty()) {
-                                        // 注意：和风天气API要求格式为"经度,纬度"（lon,lat），不是"纬度,经度"
-                                        String locStr = loc.lon + "," + loc.lat;
-
-                                        // 更新数据库中的经纬度信息（如果城市存在）
-                                        City city = cityDao.getCityByLocationId(locationId);
-                                        if (city != null) {
-                                            city.latitude = loc.lat;
-                                            city.longitude = loc.lon;
-                                            cityDao.update(city);
-                                        }
-
-                                        // 调用分钟级降水API
-                                        fetchMinutelyPrecipitationByLocation(locStr);
-                                    } else {
-                                        // API返回的数据中没有经纬度，不显示错误
-                                    }
-                                } else {
-                                    // API返回错误码，不显示错误
-                                }
-                            } else {
-                                // HTTP请求失败，不显示错误
-                            }
-                        }
-
-                        @Override
-                        public void onFailure(Call<GeoCityResponse> call, Throwable t) {
-                            // 获取经纬度失败，不显示错误
-                        }
-                    });
+    private boolean isChanged(WeatherBundle bundle, WeatherBundle.Section section) {
+        if (!bundle.isOk(section)) {
+            return false;
         }
+        Long shown = renderedAt.get(section);
+        return shown == null || shown != bundle.getReceivedAt(section);
     }
 
     /**
-     * 通过经纬度获取分钟级降水预报
-     * 根据和风天气API文档：v7/minutely/5m
-     * 参数：location（经纬度坐标 "lon,lat" 即"经度,纬度"）、key、lang
+     * 显示实时天气数据的更新时间，刚刚更新时隐藏
      */
-    private void fetchMinutelyPrecipitationByLocation(String location) {
-        // 验证location格式（应该是 "lon,lat" 即"经度,纬度"）
-        if (location == null || location.isEmpty() || !location.contains(",")) {
+    private void updateDataAge() {
+        Long receivedAt = renderedAt.get(WeatherBundle.Section.NOW);
+        long ageMinutes = receivedAt == null || receivedAt == 0 ? 0
+                : (System.currentTimeMillis() - receivedAt) / 60_000;
+        if (ageMinutes < 1) {
+            tvDataAge.setVisibility(View.GONE);
             return;
         }
-
-        weatherService.getMinutelyPrecipitation(location, Constants.QWEATHER_API_KEY, "zh")
-                .enqueue(new Callback<MinutelyResponse>() {
-                    @Override
-                    public void onResponse(Call<MinutelyResponse> call, Response<MinutelyResponse> response) {
-                        runOnUiThread(() -> {
-                            if (response.isSuccessful() && response.body() != null) {
-                                String code = response.body().getCode();
-                                if ("200".equals(code)) {
-                                    // API调用成功，更新UI
-                                    updateMinutelyPrecipitation(response.body());
-                                } else {
-                                    // API返回错误码，创建错误响应
-                                    MinutelyResponse errorResponse = new MinutelyResponse();
-                                    errorResponse.setCode(code);
-                                    updateMinutelyPrecipitation(errorResponse);
-                                }
-                            } else {
-                                // HTTP请求失败，创建错误响应
-                                MinutelyResponse errorResponse = new MinutelyResponse();
-                                errorResponse.setCode(String.valueOf(response.code()));
-                                updateMinutelyPrecipitation(errorResponse);
-                            }
-                        });
-                    }
-
-                    @Override
-                    public void onFailure(Call<MinutelyResponse> call, Throwable t) {
-                        // API调用失败，不更新数据
-                    }
-                });
+        String age = ageMinutes < 60 ? ageMinutes + "分钟前更新"
+                : ageMinutes < 24 * 60 ? ageMinutes / 60 + "小时前更新"
+                : ageMinutes / (24 * 60) + "天前更新";
+        tvDataAge.setText(currentLoad != null ? age + "，正在刷新…" : age);
+        tvDataAge.setVisibility(View.VISIBLE);
     }
 
     // ==================== 第四部分：其他代码（UI更新、业务逻辑、工具方法）(约250行) ====================
@@ -726,7 +472,7 @@ public class MainActivity extends AppCompatActivity {
                 errorMsg = "暂无分钟级降水数据\n（API错误码：" + code + "）";
             }
             minutelySummary.setText(errorMsg);
-            precipitationBarChart.setPrecipitations(new ArrayList<>(), new ArrayList<>());
+            precipitationBarChart.setPrecipitations(null, MINUTELY_STEP_MINUTES, null);
             minutelyPrecipSection.setVisibility(View.VISIBLE);
             return;
         }
@@ -735,7 +481,7 @@ public class MainActivity extends AppCompatActivity {
         if (minutelyList == null || minutelyList.isEmpty()) {
             // 如果没有数据，显示提示信息
             minutelySummary.setText("暂无分钟级降水数据\n（该地区未来2小时无降水预报）");
-            precipitationBarChart.setPrecipitations(new ArrayList<>(), new ArrayList<>());
+            precipitationBarChart.setPrecipitations(null, MINUTELY_STEP_MINUTES, null);
             minutelyPrecipSection.setVisibility(View.VISIBLE);
             return;
         }
@@ -744,147 +490,40 @@ public class MainActivity extends AppCompatActivity {
         if (response.getSummary() != null && !response.getSummary().isEmpty()) {
             minutelySummary.setText(response.getSummary());
         } else {
-            minutelySummary.setText("未来2小时降水预报（每1分钟一个数据点）");
+            minutelySummary.setText("未来2小时降水预报（每5分钟一个数据点）");
         }
 
-        // 准备柱状图数据（1分钟一个柱子，2小时=120个柱子）
-        // API返回的是每5分钟一个数据点，我们需要将其扩展为每1分钟一个柱子
-        List<Float> precipValues = new ArrayList<>();
-        List<String> timeLabels = new ArrayList<>();
-        int apiDataCount = Math.min(minutelyList.size(), 24); // API返回的数据点（每5分钟一个）
-
-        // 将每5分钟的数据扩展为每1分钟的数据（每个数据点重复5次）
+        // 准备柱状图数据：API每5分钟一个数据点（2小时=24个），每个数据画成5个格子宽的柱子
+        // 不足24个的部分按无降水处理；每10分钟（每2个数据点）显示一次时间标签
+        float[] precipValues = new float[MINUTELY_POINTS];
+        SparseArray<String> timeLabels = new SparseArray<>();
+        int apiDataCount = Math.min(minutelyList.size(), MINUTELY_POINTS);
         for (int i = 0; i < apiDataCount; i++) {
+            MinutelyResponse.Minutely minutely = minutelyList.get(i);
+            if (minutely == null) {
+                continue;
+            }
+            // 获取降雨量
             try {
-                MinutelyResponse.Minutely minutely = minutelyList.get(i);
-                float precipValue = 0;
-                String timeStr = "";
-
-                if (minutely != null) {
-                    // 获取降雨量
-                    try {
-                        String precipStr = minutely.getPrecip();
-                        if (precipStr != null && !precipStr.isEmpty()) {
-                            precipValue = Float.parseFloat(precipStr);
-                            // 确保降雨量不为负数
-                            if (precipValue < 0) {
-                                precipValue = 0;
-                            }
-                        }
-                    } catch (NumberFormatException e) {
-                        precipValue = 0;
-                    }
-                    String fxTime = minutely.getFxTime();
-                    timeStr = fxTime != null ? DateUtils.formatMinutelyTime(fxTime) : "";
-                }
-
-                // 每个API数据点扩展为5个柱子（代表5分钟，每个柱子代表1分钟）
-                for (int j = 0; j < 5; j++) {
-                    precipValues.add(precipValue);
-                    // 每10分钟（每10个柱子）显示一次时间标签
-                    // 只在每个API数据点的第一个柱子（j==0）且是10的倍数时显示
-                    int totalIndex = i * 5 + j;
-                    if (totalIndex % 10 == 0 && j == 0 && !timeStr.isEmpty()) {
-                        timeLabels.add(timeStr);
-                    } else {
-                        timeLabels.add("");
-                    }
-                }
-            } catch (IndexOutOfBoundsException e) {
-                // 防止数组越界，填充默认值
-                for (int j = 0; j < 5; j++) {
-                    precipValues.add(0f);
-                    timeLabels.add("");
+                String precipStr = minutely.getPrecip();
+                if (precipStr != null && !precipStr.isEmpty()) {
+                    // 确保降雨量不为负数
+                    precipValues[i] = Math.max(0, Float.parseFloat(precipStr));
                 }
+            } catch (NumberFormatException e) {
+                precipValues[i] = 0;
+            }
+            String fxTime = minutely.getFxTime();
+            if (i % 2 == 0 && fxTime != null) {
+                timeLabels.put(i, DateUtils.formatMinutelyTime(fxTime));
             }
-        }
-
-        // 确保总共120个柱子（2小时=120分钟）
-        while (precipValues.size() < 120) {
-            precipValues.add(0f);
-            timeLabels.add("");
-        }
-        // 如果超过120个，截取前120个
-        if (precipValues.size() > 120) {
-            precipValues = precipValues.subList(0, 120);
-            timeLabels = timeLabels.subList(0, 120);
         }
 
         // 更新柱状图
-        precipitationBarChart.setPrecipitations(precipValues, timeLabels);
+        precipitationBarChart.setPrecipitations(precipValues, MINUTELY_STEP_MINUTES, timeLabels);
         minutelyPrecipSection.setVisibility(View.VISIBLE);
     }
 
-    /**
-     * 获取日出日落时间
-     */
-    private void fetchSunriseSunset(String cityName) {
-        City city = cityDao.getCityByName(cityName);
-        if (city == null || city.getLatitude() == null || city.getLongitude() == null ||
-                city.getLatitude().isEmpty() || city.getLongitude().isEmpty()) {
-            return;
-        }
-
-        // 获取今天的日期（格式：yyyyMMdd）
-        String date = DateUtils.formatDateYYYYMMDD(DateUtils.getCurrentDate());
-
-        // 注意：和风天气API要求格式为"经度,纬度"（lon,lat）
-        String location = city.getLongitude() + "," + city.getLatitude();
-
-        weatherService.getSunriseSunset(location, Constants.QWEATHER_API_KEY, date)
-                .enqueue(new Callback<SunResponse>() {
-                    @Override
-                    public void onResponse(Call<SunResponse> call, Response<SunResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            SunResponse sunResponse = response.body();
-                            if ("200".equals(sunResponse.getCode())) {
-                                runOnUiThread(() -> updateSunriseSunsetUI(sunResponse));
-                            }
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<SunResponse> call, Throwable t) {
-                        // 失败时静默处理
-                    }
-                });
-    }
-
-    /**
-     * 获取太阳辐射预报
-     * 注意：此API返回的是太阳辐射数据（辐照度），不是紫外线指数
-     * 如果需要紫外线指数，应使用天气指数API
-     */
-    private void fetchSolarRadiation(String cityName) {
-        City city = cityDao.getCityByName(cityName);
-        if (city == null || city.getLatitude() == null || city.getLongitude() == null ||
-                city.getLatitude().isEmpty() || city.getLongitude().isEmpty()) {
-            return;
-        }
-
-        // API使用路径参数：latitude和longitude
-        // 查询参数：hours=1（获取1小时数据），interval=60（60分钟间隔，即下一个小时）
-        weatherService.getSolarRadiation(city.getLatitude(), city.getLongitude(), 1, 60, Constants.QWEATHER_API_KEY)
-                .enqueue(new Callback<SolarRadiationResponse>() {
-                    @Override
-                    public void onResponse(Call<SolarRadiationResponse> call, Response<SolarRadiationResponse> response) {
-                        if (response.isSuccessful() && response.body() != null) {
-                            SolarRadiationResponse solarResponse = response.body();
-                            if (solarResponse.getForecasts() != null && !solarResponse.getForecasts().isEmpty()) {
-                                // 获取下一个小时的数据（第一个数据点）
-                                SolarRadiationResponse.Forecast forecast = solarResponse.getForecasts().get(0);
-                                runOnUiThread(() -> updateSolarRadiationUI(forecast));
-                            }
-                        }
-                    }
-
-                    @Override
-                    public void onFailure(Call<SolarRadiationResponse> call, Throwable t) {
-                        // 失败时静默处理
-                    }
-                });
-    }
-
     /**
      * 更新日出日落UI
      */
@@ -1043,6 +682,7 @@ public class MainActivity extends AppCompatActivity {
         tvTemperature = findViewById(R.id.b);
         tvHighTemp = findViewById(R.id.c);
         tvCity = findViewById(R.id.d);
+        tvDataAge = findViewById(R.id.data_age);
         tvDayOfWeek = findViewById(R.id.e);
         tvWeather = findViewById(R.id.f);
         imageView = findViewById(R.id.imageView);
@@ -1051,13 +691,7 @@ public class MainActivity extends AppCompatActivity {
         tvTempRange = findViewById(R.id.i);
         btnAirQuality.setOnClickListener(v -> showAirQualityDialog());
 
-        hourlyForecastContainer = findViewById(R.id.hourly_forecast_container);
-        temperatureLineChart = findViewById(R.id.temperature_line_chart);
-        temperatureChartScroll = findViewById(R.id.temperature_chart_scroll);
-        hourlyIconsScroll = findViewById(R.id.hourly_icons_scroll);
-
-        // 同步折线图和图标容器的滑动
-        setupSynchronizedScrolling();
+        hourlyTimeline = findViewById(R.id.hourly_timeline);
 
         // 初始化15天天气预报RecyclerView
         dailyForecastRecycler = findViewById(R.id.daily_forecast_recycler);
@@ -1089,118 +723,33 @@ public class MainActivity extends AppCompatActivity {
     }
 
     /**
-     * 更新24小时预报显示
+     * 更新24小时预报显示：温度折线、天气图标和时间都由时间轴View绘制
      */
     private void updateHourlyForecast(List<WeatherResponse.Hourly> hourlyList) {
-        if (hourlyList == null || hourlyList.isEmpty()) {
+        if (hourlyList == null || hourlyList.isEmpty() || hourlyTimeline == null) {
             return;
         }
 
-        // 更新折线图（包含温度和时间标签）
-        if (temperatureLineChart != null) {
-            List<Integer> temperatures = new ArrayList<>();
-            List<String> timeLabels = new ArrayList<>();
-            int count = Math.min(12, hourlyList.size());
-            for (int i = 0; i < count; i++) {
-                try {
-                    WeatherResponse.Hourly hourly = hourlyList.get(i);
-                    if (hourly != null) {
-                        // 添加温度
-                        if (hourly.getTemp() != null) {
-                            try {
-                                temperatures.add(Integer.parseInt(hourly.getTemp()));
-                            } catch (NumberFormatException e) {
-                                temperatures.add(0);
-                            }
-                        } else {
-                            temperatures.add(0);
-                        }
-                        // 添加时间标签
-                        String fxTime = hourly.getFxTime();
-                        timeLabels.add(fxTime != null ? DateUtils.formatHourlyTime(fxTime) : "--");
-                    } else {
-                        temperatures.add(0);
-                        timeLabels.add("--");
-                    }
-                } catch (IndexOutOfBoundsException e) {
-                    // 防止数组越界
-                    temperatures.add(0);
-                    timeLabels.add("--");
-                }
+        int count = hourlyList.size();
+        int[] temperatures = new int[count];
+        String[] icons = new String[count];
+        String[] times = new String[count];
+        for (int i = 0; i < count; i++) {
+            WeatherResponse.Hourly hourly = hourlyList.get(i);
+            if (hourly == null) {
+                continue;
             }
-            temperatureLineChart.setTemperatures(temperatures, timeLabels);
-        }
-
-        // 更新天气图标和文字（宽度与折线图一致）
-        if (hourlyForecastContainer != null) {
-            hourlyForecastContainer.removeAllViews();
-            int count = Math.min(12, hourlyList.size());
-            for (int i = 0; i < count; i++) {
+            if (hourly.getTemp() != null) {
                 try {
-                    WeatherResponse.Hourly hourly = hourlyList.get(i);
-                    if (hourly != null) {
-                        hourlyForecastContainer.addView(createHourlyItemView(hourly));
-                    }
-                } catch (IndexOutOfBoundsException e) {
-                    // 防止数组越界，跳过该项
-                } catch (Exception e) {
-                    // 其他异常，跳过该项
+                    temperatures[i] = Integer.parseInt(hourly.getTemp());
+                } catch (NumberFormatException e) {
+                    temperatures[i] = 0;
                 }
             }
+            icons[i] = hourly.getIcon();
+            String fxTime = hourly.getFxTime();
+            times[i] = fxTime != null ? DateUtils.formatHourlyTime(fxTime) : null;
         }
-    }
-
-    /**
-     * 创建单个小时预报项视图（仅显示天气图标和时间，不显示箭头）
-     * 宽度与折线图一致（100dp）
-     */
-    private View createHourlyItemView(WeatherResponse.Hourly hourly) {
-        if (hourly == null) {
-            // 返回一个空的占位视图
-            LinearLayout emptyLayout = new LinearLayout(this);
-            emptyLayout.setLayoutParams(new LinearLayout.LayoutParams(
-                    dpToPx(100), LinearLayout.LayoutParams.WRAP_CONTENT));
-            return emptyLayout;
-        }
-
-        LinearLayout itemLayout = new LinearLayout(this);
-        itemLayout.setOrientation(LinearLayout.VERTICAL);
-        itemLayout.setGravity(android.view.Gravity.CENTER);
-        itemLayout.setPadding(16, 8, 16, 8);
-        itemLayout.setLayoutParams(new LinearLayout.LayoutParams(
-                dpToPx(100), LinearLayout.LayoutParams.WRAP_CONTENT)); // 与折线图宽度一致
-
-        ImageView iconView = new ImageView(this);
-        iconView.setLayoutParams(new LinearLayout.LayoutParams(dpToPx(32), dpToPx(32)));
-        iconView.setScaleType(ImageView.ScaleType.CENTER_INSIDE);
-        String icon = hourly.getIcon();
-        if (icon != null) {
-            WeatherIconUtils.setWeatherIcon(iconView, icon);
-        }
-        itemLayout.addView(iconView);
-
-        TextView timeText = new TextView(this);
-        String fxTime = hourly.getFxTime();
-        timeText.setText(fxTime != null ? DateUtils.formatHourlyTime(fxTime) : "--");
-        try {
-            timeText.setTextColor(getResources().getColor(android.R.color.black));
-        } catch (Exception e) {
-            // 如果资源获取失败，使用默认颜色
-            timeText.setTextColor(0xFF000000);
-        }
-        timeText.setTextSize(12);
-        timeText.setGravity(android.view.Gravity.CENTER);
-        timeText.setPadding(0, dpToPx(4), 0, 0);
-        itemLayout.addView(timeText);
-
-        return itemLayout;
-    }
-
-    /**
-     * 将dp转换为px
-     */
-    private int dpToPx(int dp) {
-        float density = getResources().getDisplayMetrics().density;
-        return Math.round(dp * density);
+        hourlyTimeline.setHourly(temperatures, icons, times);
     }
 }
@@ -1,6 +1,10 @@
 package com.example.weatherapp;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.View;
 import android.view.ViewGroup;
 import android.view.inputmethod.EditorInfo;
@@ -17,14 +21,21 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.weatherapp.adapters.CityAdapter;
-import com.example.weatherapp.database.AppDatabase;
-import com.example.weatherapp.database.CityDao;
+import com.example.weatherapp.database.CityCache;
+import com.example.weatherapp.database.GazetteerDao;
+import com.example.weatherapp.database.GazetteerDatabase;
+import com.example.weatherapp.models.GazetteerCity;
 import com.example.weatherapp.models.City;
 import com.example.weatherapp.models.GeoCityResponse;
 import com.example.weatherapp.network.ApiClient;
 import com.example.weatherapp.network.WeatherService;
 import com.example.weatherapp.utils.Constants;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 import retrofit2.Call;
 import retrofit2.Callback;
 import retrofit2.Response;
@@ -32,17 +43,29 @@ import retrofit2.Response;
 /**
  * 城市搜索Activity
  * 提供城市搜索功能，将搜索到的城市添加到数据库
+ * 先查预打包的离线城市库并立即显示结果；离线城市库只收录了部分城市，结果不满SEARCH_LIMIT条时
+ * 再通过GeoAPI在线搜索，在线结果合并到离线结果之后（按locationId去重）
+ * 输入时停顿SEARCH_DEBOUNCE_MS后自动搜索；新的搜索开始时取消上一次的在线请求，旧结果不会覆盖新结果
  */
 public class SearchActivity extends AppCompatActivity {
 
+    private static final int SEARCH_LIMIT = 20;
+    private static final long SEARCH_DEBOUNCE_MS = 300;
+
     private EditText searchBar;
     private ImageButton searchButton;
     private Button btnAddCity;
-    private CityDao cityDao;
+    private CityCache cityCache;
+    private GazetteerDao gazetteerDao;
     private WeatherService api;
     private RecyclerView searchResultsRecycler;
     private ScrollView cityGridScroll;
     private CityAdapter searchResultAdapter;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable liveSearch = () -> search(false);
+    /** 每次搜索加一，回调时不是最新的搜索则丢弃结果 */
+    private int searchGeneration;
+    private Call<GeoCityResponse> onlineCall;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -54,7 +77,8 @@ public class SearchActivity extends AppCompatActivity {
         btnAddCity = findViewById(R.id.add_button);
         searchResultsRecycler = findViewById(R.id.search_results_recycler);
         cityGridScroll = findViewById(R.id.city_grid_scroll);
-        cityDao = AppDatabase.getInstance(this).cityDao();
+        cityCache = CityCache.getInstance(this);
+        gazetteerDao = GazetteerDatabase.getInstance(this).gazetteerDao();
         api = ApiClient.getClient().create(WeatherService.class);
 
         // 初始化搜索结果RecyclerView
@@ -68,6 +92,12 @@ public class SearchActivity extends AppCompatActivity {
         setupBackPressedHandler();
     }
 
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        cancelSearch();
+    }
+
     /**
      * 设置返回键处理（使用返回栈机制）
      */
@@ -102,73 +132,186 @@ public class SearchActivity extends AppCompatActivity {
             }
             return false;
         });
+        searchBar.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                mainHandler.removeCallbacks(liveSearch);
+                if (s.toString().trim().isEmpty()) {
+                    cancelSearch();
+                    showCityGrid();
+                } else {
+                    mainHandler.postDelayed(liveSearch, SEARCH_DEBOUNCE_MS);
+                }
+            }
+        });
     }
 
     /**
-     * 根据输入的城市名称搜索城市
-     * 显示所有搜索结果（包括城市及其下属各区）
+     * 根据输入的城市名称搜索城市（按钮、输入法搜索键、快捷城市），不等待防抖
      */
     private void addCityByName() {
+        search(true);
+    }
+
+    /**
+     * 搜索输入框中的城市
+     * 显示所有搜索结果（包括城市及其下属各区）；离线城市库的结果已满SEARCH_LIMIT条时不访问网络
+     * @param explicit 用户主动搜索时没有结果会提示，输入过程中的自动搜索不提示
+     */
+    private void search(boolean explicit) {
         final String cityName = searchBar.getText().toString().trim();
+        cancelSearch();
 
         if (cityName.isEmpty()) {
-            Toast.makeText(this, "请输入城市名称", Toast.LENGTH_SHORT).show();
+            if (explicit) {
+                Toast.makeText(this, "请输入城市名称", Toast.LENGTH_SHORT).show();
+            }
             return;
         }
 
+        final int generation = searchGeneration;
+        gazetteerDao.searchAsync(cityName, SEARCH_LIMIT).whenCompleteAsync((cities, error) -> {
+            if (isDestroyed() || generation != searchGeneration) {
+                return;
+            }
+            List<GeoCityResponse.Location> offline = new ArrayList<>();
+            if (error == null && cities != null) {
+                for (GazetteerCity city : cities) {
+                    offline.add(city.toLocation());
+                }
+            }
+            if (!offline.isEmpty()) {
+                showSearchResults(offline);
+                if (offline.size() >= SEARCH_LIMIT) {
+                    return;
+                }
+            }
+            searchOnline(cityName, explicit, offline);
+        }, getMainExecutor());
+    }
+
+    /**
+     * 取消正在进行的搜索：丢弃未返回的离线查询结果，取消在线请求
+     */
+    private void cancelSearch() {
+        mainHandler.removeCallbacks(liveSearch);
+        searchGeneration++;
+        if (onlineCall != null) {
+            onlineCall.cancel();
+            onlineCall = null;
+        }
+    }
+
+    /**
+     * 离线城市库的结果不满时通过GeoAPI搜索
+     * @param offline 已显示的离线结果，在线结果合并在后面；在线搜索失败时保留离线结果，不提示
+     */
+    private void searchOnline(String cityName, boolean explicit, List<GeoCityResponse.Location> offline) {
         // 增加返回数量，以便显示城市下的各区
-        api.searchCity(cityName, Constants.QWEATHER_API_KEY, null, null, 20, "zh")
-                .enqueue(new Callback<GeoCityResponse>() {
-                    @Override
-                    public void onResponse(Call<GeoCityResponse> call, Response<GeoCityResponse> response) {
-                        if (response.isSuccessful() && response.body() != null &&
-                                "200".equals(response.body().code) &&
-                                response.body().location != null &&
-                                !response.body().location.isEmpty()) {
-
-                            // 显示搜索结果列表
-                            searchResultAdapter = new CityAdapter(
-                                    SearchActivity.this,
-                                    response.body().location,
-                                    location -> addLocationToDatabase(location)
-                            );
-                            searchResultsRecycler.setAdapter(searchResultAdapter);
-
-                            // 切换显示：隐藏快捷城市按钮，显示搜索结果
-                            cityGridScroll.setVisibility(View.GONE);
-                            searchResultsRecycler.setVisibility(View.VISIBLE);
-                        } else {
-                            Toast.makeText(SearchActivity.this, "未找到该城市：" + cityName, Toast.LENGTH_SHORT).show();
-                            // 如果没有搜索结果，显示快捷城市按钮
-                            cityGridScroll.setVisibility(View.VISIBLE);
-                            searchResultsRecycler.setVisibility(View.GONE);
-                        }
+        Call<GeoCityResponse> call = api.searchCity(cityName, Constants.QWEATHER_API_KEY, null, null, SEARCH_LIMIT, "zh");
+        onlineCall = call;
+        call.enqueue(new Callback<GeoCityResponse>() {
+            @Override
+            public void onResponse(Call<GeoCityResponse> c, Response<GeoCityResponse> response) {
+                if (call != onlineCall || isDestroyed()) {
+                    return;
+                }
+                onlineCall = null;
+                if (response.isSuccessful() && response.body() != null &&
+                        "200".equals(response.body().code) &&
+                        response.body().location != null &&
+                        !response.body().location.isEmpty()) {
+                    showSearchResults(merge(offline, response.body().location));
+                } else if (offline.isEmpty()) {
+                    if (explicit) {
+                        Toast.makeText(SearchActivity.this, "未找到该城市：" + cityName, Toast.LENGTH_SHORT).show();
                     }
+                    // 如果没有搜索结果，显示快捷城市按钮
+                    showCityGrid();
+                }
+            }
 
-                    @Override
-                    public void onFailure(Call<GeoCityResponse> call, Throwable t) {
-                        Toast.makeText(SearchActivity.this, "网络错误：" + t.getMessage(), Toast.LENGTH_SHORT).show();
-                        // 网络错误时显示快捷城市按钮
-                        cityGridScroll.setVisibility(View.VISIBLE);
-                        searchResultsRecycler.setVisibility(View.GONE);
-                    }
-                });
+            @Override
+            public void onFailure(Call<GeoCityResponse> c, Throwable t) {
+                // 被新的搜索取消的请求不提示
+                if (call != onlineCall || isDestroyed()) {
+                    return;
+                }
+                onlineCall = null;
+                if (!offline.isEmpty()) {
+                    return;
+                }
+                // 输入过程中的自动搜索不提示，避免离线时每次停顿都弹出
+                if (explicit) {
+                    Toast.makeText(SearchActivity.this, "网络错误：" + t.getMessage(), Toast.LENGTH_SHORT).show();
+                }
+                // 网络错误时显示快捷城市按钮
+                showCityGrid();
+            }
+        });
     }
 
     /**
-     * 将选中的位置添加到数据库
+     * 离线结果在前，在线结果中locationId已出现的跳过，最多SEARCH_LIMIT条
      */
-    private void addLocationToDatabase(GeoCityResponse.Location location) {
-        if (cityDao.countByLocationId(location.id) > 0) {
-            Toast.makeText(this, "城市已存在：" + location.name, Toast.LENGTH_SHORT).show();
-            return;
+    private static List<GeoCityResponse.Location> merge(List<GeoCityResponse.Location> offline,
+                                                       List<GeoCityResponse.Location> online) {
+        List<GeoCityResponse.Location> merged = new ArrayList<>(offline);
+        Set<String> ids = new HashSet<>();
+        for (GeoCityResponse.Location location : offline) {
+            ids.add(location.id);
         }
+        for (GeoCityResponse.Location location : online) {
+            if (merged.size() >= SEARCH_LIMIT) {
+                break;
+            }
+            if (ids.add(location.id)) {
+                merged.add(location);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * 显示搜索结果列表：隐藏快捷城市按钮，显示搜索结果
+     * 在原有适配器上按差异更新，不重建适配器
+     */
+    private void showSearchResults(List<GeoCityResponse.Location> locations) {
+        searchResultAdapter.updateSearchResults(locations);
+        cityGridScroll.setVisibility(View.GONE);
+        searchResultsRecycler.setVisibility(View.VISIBLE);
+    }
 
-        // 保存经纬度信息，用于格点API和空气质量API
+    private void showCityGrid() {
+        cityGridScroll.setVisibility(View.VISIBLE);
+        searchResultsRecycler.setVisibility(View.GONE);
+    }
+
+    /**
+     * 将选中的位置添加到数据库
+     */
+    private void addLocationToDatabase(GeoCityResponse.Location location) {
+        // 保存经纬度信息，用于格点API和空气质量API；已存在时只更新信息
         City city = new City(location.name, location.id, location.lat, location.lon);
-        cityDao.insert(city);
-        Toast.makeText(this, "已添加城市：" + location.name, Toast.LENGTH_SHORT).show();
-        finish();
+        cityCache.upsertAsync(city).thenAcceptAsync(inserted -> {
+            if (isDestroyed()) {
+                return;
+            }
+            if (!inserted) {
+                Toast.makeText(this, "城市已存在：" + location.name, Toast.LENGTH_SHORT).show();
+                return;
+            }
+            Toast.makeText(this, "已添加城市：" + location.name, Toast.LENGTH_SHORT).show();
+            finish();
+        }, getMainExecutor());
     }
 
     /**
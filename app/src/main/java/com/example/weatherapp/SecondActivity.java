@@ -9,11 +9,7 @@ import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.weatherapp.adapters.CityAdapter;
-import com.example.weatherapp.database.AppDatabase;
-import com.example.weatherapp.database.CityDao;
-import com.example.weatherapp.models.City;
-
-import java.util.List;
+import com.example.weatherapp.database.CityCache;
 
 /**
  * 城市列表Activity
@@ -22,7 +18,7 @@ import java.util.List;
 public class SecondActivity extends AppCompatActivity {
 
     private RecyclerView recyclerView;
-    private CityDao cityDao;
+    private CityCache cityCache;
     private CityAdapter adapter;
 
     @Override
@@ -30,7 +26,7 @@ public class SecondActivity extends AppCompatActivity {
         super.onCreate(savedInstanceState);
         setContentView(R.layout.activity_second);
 
-        cityDao = AppDatabase.getInstance(this).cityDao();
+        cityCache = CityCache.getInstance(this);
         recyclerView = findViewById(R.id.city_recycler_view);
         recyclerView.setLayoutManager(new LinearLayoutManager(this));
 
@@ -47,9 +43,13 @@ public class SecondActivity extends AppCompatActivity {
      * 加载城市列表
      */
     private void loadCities() {
-        List<City> cities = cityDao.getAllCities();
-        adapter = new CityAdapter(this, cities);
-        recyclerView.setAdapter(adapter);
+        cityCache.getAllAsync().thenAcceptAsync(cities -> {
+            if (isDestroyed()) {
+                return;
+            }
+            adapter = new CityAdapter(this, cities);
+            recyclerView.setAdapter(adapter);
+        }, getMainExecutor());
     }
 
     @Override
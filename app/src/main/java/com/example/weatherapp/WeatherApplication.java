@@ -0,0 +1,38 @@
+package com.example.weatherapp;
+
+import android.app.Application;
+import android.content.pm.ApplicationInfo;
+
+import com.example.weatherapp.database.QueryProfiler;
+import com.example.weatherapp.network.ApiClient;
+import com.example.weatherapp.repository.CoordinateBackfill;
+import com.example.weatherapp.utils.SharedPrefsUtils;
+
+/**
+ * 应用入口
+ * 在任何Activity之前完成全局组件的初始化
+ */
+public class WeatherApplication extends Application {
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        // debug包默认开启数据库语句耗时统计，可通过调试页或MainActivity的query_profiler启动参数关闭；
+        // 正式包不接受外部开关，保持关闭
+        boolean debuggable = (getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        QueryProfiler.getInstance().setEnabled(SharedPrefsUtils.isQueryProfilerEnabled(this, debuggable));
+        ApiClient.init(this);
+        ApiClient.prewarm();
+        // 早期保存的城市没有经纬度，在后台一次性补全（已补全时只读取一次城市缓存）
+        CoordinateBackfill.getInstance(this).start();
+    }
+
+    @Override
+    public void onTrimMemory(int level) {
+        super.onTrimMemory(level);
+        // 界面进入后台时输出数据库语句统计汇总，正式包没有调试页也能通过logcat查看
+        if (level == TRIM_MEMORY_UI_HIDDEN && QueryProfiler.getInstance().isEnabled()) {
+            QueryProfiler.getInstance().logSummary();
+        }
+    }
+}
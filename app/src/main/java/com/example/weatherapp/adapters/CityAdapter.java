@@ -8,15 +8,18 @@ import android.widget.LinearLayout;
 import android.widget.TextView;
 
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
 import androidx.recyclerview.widget.RecyclerView;
 
 import com.example.weatherapp.MainActivity;
-import com.example.weatherapp.database.AppDatabase;
-import com.example.weatherapp.database.CityDao;
+import com.example.weatherapp.database.CityCache;
 import com.example.weatherapp.models.City;
 import com.example.weatherapp.models.GeoCityResponse;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * 统一的城市列表适配器
@@ -32,8 +35,9 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.CityViewHolder
     private final int mode;
     private List<City> cities;
     private List<GeoCityResponse.Location> locations;
-    private final CityDao cityDao;
+    private final CityCache cityCache;
     private OnLocationClickListener locationClickListener;
+    private OnCityDeleteListener cityDeleteListener;
 
     /**
      * 搜索结果点击监听器
@@ -42,6 +46,14 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.CityViewHolder
         void onLocationClick(GeoCityResponse.Location location);
     }
 
+    /**
+     * 删除模式点击监听器
+     * 设置后由监听器负责删除（可以攒起来批量删除），未设置时点击立即删除
+     */
+    public interface OnCityDeleteListener {
+        void onCityDelete(City city);
+    }
+
     /**
      * 城市列表模式构造函数
      */
@@ -63,7 +75,7 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.CityViewHolder
         this.context = context;
         this.cities = cities;
         this.mode = mode;
-        this.cityDao = AppDatabase.getInstance(context).cityDao();
+        this.cityCache = CityCache.getInstance(context);
     }
 
     /**
@@ -73,7 +85,7 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.CityViewHolder
         this.context = context;
         this.locations = locations;
         this.mode = MODE_SEARCH_RESULT;
-        this.cityDao = AppDatabase.getInstance(context).cityDao();
+        this.cityCache = CityCache.getInstance(context);
         this.locationClickListener = listener;
     }
 
@@ -125,9 +137,11 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.CityViewHolder
 
             holder.textView.setText(displayText);
 
+            // 按差异更新时未变化的条目不会重新绑定，点击时从当前列表取数据
             holder.itemView.setOnClickListener(v -> {
-                if (locationClickListener != null) {
-                    locationClickListener.onLocationClick(location);
+                int current = holder.getBindingAdapterPosition();
+                if (locationClickListener != null && current != RecyclerView.NO_POSITION) {
+                    locationClickListener.onLocationClick(locations.get(current));
                 }
             });
         } else {
@@ -137,11 +151,18 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.CityViewHolder
 
             holder.itemView.setOnClickListener(v -> {
                 if (mode == MODE_DELETE) {
-                    // 删除模式
-                    cityDao.deleteCity(city.getName());
-                    cities.remove(position);
-                    notifyItemRemoved(position);
-                    notifyItemRangeChanged(position, cities.size());
+                    // 删除模式；前面的条目删除后position会过时，使用当前位置
+                    int current = holder.getBindingAdapterPosition();
+                    if (current == RecyclerView.NO_POSITION) {
+                        return;
+                    }
+                    if (cityDeleteListener != null) {
+                        cityDeleteListener.onCityDelete(city);
+                    } else {
+                        cityCache.deleteByNameAsync(city.getName());
+                    }
+                    cities.remove(current);
+                    notifyItemRemoved(current);
                 } else {
                     // 普通列表模式，跳转到主页面
                     Intent intent = new Intent(context, MainActivity.class);
@@ -162,14 +183,49 @@ public class CityAdapter extends RecyclerView.Adapter<CityAdapter.CityViewHolder
         }
     }
 
+    public void setOnCityDeleteListener(OnCityDeleteListener listener) {
+        this.cityDeleteListener = listener;
+    }
+
     /**
      * 更新搜索结果数据
+     * 用DiffUtil计算与当前结果的差异（按locationId判断是否同一项），只刷新变化的条目
+     * 搜索结果最多几十条，直接在主线程计算
      */
     public void updateSearchResults(List<GeoCityResponse.Location> newLocations) {
-        if (mode == MODE_SEARCH_RESULT) {
-            this.locations = newLocations;
-            notifyDataSetChanged();
+        if (mode != MODE_SEARCH_RESULT) {
+            return;
         }
+        List<GeoCityResponse.Location> oldList = locations == null
+                ? Collections.emptyList() : locations;
+        List<GeoCityResponse.Location> newList = newLocations == null
+                ? new ArrayList<>() : new ArrayList<>(newLocations);
+        DiffUtil.DiffResult diff = DiffUtil.calculateDiff(new DiffUtil.Callback() {
+            @Override
+            public int getOldListSize() {
+                return oldList.size();
+            }
+
+            @Override
+            public int getNewListSize() {
+                return newList.size();
+            }
+
+            @Override
+            public boolean areItemsTheSame(int oldPosition, int newPosition) {
+                return Objects.equals(oldList.get(oldPosition).id, newList.get(newPosition).id);
+            }
+
+            @Override
+            public boolean areContentsTheSame(int oldPosition, int newPosition) {
+                GeoCityResponse.Location a = oldList.get(oldPosition);
+                GeoCityResponse.Location b = newList.get(newPosition);
+                return Objects.equals(a.name, b.name) && Objects.equals(a.adm1, b.adm1)
+                        && Objects.equals(a.adm2, b.adm2);
+            }
+        });
+        this.locations = newList;
+        diff.dispatchUpdatesTo(this);
     }
 
     static class CityViewHolder extends RecyclerView.ViewHolder {
@@ -1,20 +1,134 @@
 package com.example.weatherapp.database;
 
 import android.content.Context;
+import android.database.Cursor;
+import android.os.CancellationSignal;
 
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.room.Database;
 import androidx.room.Room;
 import androidx.room.RoomDatabase;
+import androidx.room.migration.Migration;
+import androidx.sqlite.db.SupportSQLiteDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
 
 import com.example.weatherapp.models.City;
+import com.example.weatherapp.models.WeatherSnapshot;
 
-@Database(entities = {City.class}, version = 3)
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Database(entities = {City.class, WeatherSnapshot.class}, version = 5)
 public abstract class AppDatabase extends RoomDatabase {
 
     private static volatile AppDatabase INSTANCE;
 
+    /**
+     * 数据库专用线程池，所有查询和写入都在这里执行，不占用主线程
+     */
+    private static final ExecutorService DATABASE_EXECUTOR = Executors.newFixedThreadPool(2, new ThreadFactory() {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            return new Thread(r, "database-" + count.incrementAndGet());
+        }
+    });
+
+    /**
+     * 显式使用WAL：读写可以并发（界面查询不会被快照写入阻塞），提交时只追加日志，不重写数据库文件
+     * 默认的AUTOMATIC在低内存设备上会退回TRUNCATE
+     */
+    static final JournalMode JOURNAL_MODE = JournalMode.WRITE_AHEAD_LOGGING;
+
     public abstract CityDao cityDao();
 
+    public abstract WeatherSnapshotDao weatherSnapshotDao();
+
+    /**
+     * 查询和预编译语句交给QueryProfiler计时
+     */
+    @NonNull
+    @Override
+    public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal signal) {
+        long startNanos = System.nanoTime();
+        return QueryProfiler.getInstance().profile(query.getSql(), startNanos, super.query(query, signal));
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+        return QueryProfiler.getInstance().profile(sql, super.compileStatement(sql));
+    }
+
+    /**
+     * 1 -> 2：表结构没有变化
+     */
+    static final Migration MIGRATION_1_2 = new Migration(1, 2) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+        }
+    };
+
+    /**
+     * 2 -> 3：增加经纬度列
+     */
+    static final Migration MIGRATION_2_3 = new Migration(2, 3) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("ALTER TABLE `city` ADD COLUMN `latitude` TEXT");
+            db.execSQL("ALTER TABLE `city` ADD COLUMN `longitude` TEXT");
+        }
+    };
+
+    /**
+     * 3 -> 4：locationId唯一索引、name索引
+     * 建唯一索引前先合并重复的城市：保留id最小的一条，并补上其他重复行中的经纬度
+     */
+    static final Migration MIGRATION_3_4 = new Migration(3, 4) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("UPDATE `city` SET "
+                    + "`latitude` = (SELECT c.`latitude` FROM `city` c WHERE c.`locationId` = `city`.`locationId` "
+                    + "AND c.`latitude` IS NOT NULL AND c.`latitude` != '' "
+                    + "AND c.`longitude` IS NOT NULL AND c.`longitude` != '' ORDER BY c.`id` LIMIT 1), "
+                    + "`longitude` = (SELECT c.`longitude` FROM `city` c WHERE c.`locationId` = `city`.`locationId` "
+                    + "AND c.`latitude` IS NOT NULL AND c.`latitude` != '' "
+                    + "AND c.`longitude` IS NOT NULL AND c.`longitude` != '' ORDER BY c.`id` LIMIT 1) "
+                    + "WHERE `locationId` IS NOT NULL "
+                    + "AND (`latitude` IS NULL OR `latitude` = '' OR `longitude` IS NULL OR `longitude` = '')");
+            db.execSQL("DELETE FROM `city` WHERE `locationId` IS NOT NULL AND `id` NOT IN "
+                    + "(SELECT MIN(`id`) FROM `city` WHERE `locationId` IS NOT NULL GROUP BY `locationId`)");
+            db.execSQL("CREATE UNIQUE INDEX IF NOT EXISTS `index_city_locationId` ON `city` (`locationId`)");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_city_name` ON `city` (`name`)");
+        }
+    };
+
+    /**
+     * 4 -> 5：天气快照表
+     */
+    static final Migration MIGRATION_4_5 = new Migration(4, 5) {
+        @Override
+        public void migrate(@NonNull SupportSQLiteDatabase db) {
+            db.execSQL("CREATE TABLE IF NOT EXISTS `weather_snapshot` (`locationId` TEXT NOT NULL, "
+                    + "`section` TEXT NOT NULL, `payload` TEXT, `fetchTime` INTEGER NOT NULL, `updateTime` TEXT, "
+                    + "PRIMARY KEY(`locationId`, `section`))");
+            db.execSQL("CREATE INDEX IF NOT EXISTS `index_weather_snapshot_fetchTime` "
+                    + "ON `weather_snapshot` (`fetchTime`)");
+        }
+    };
+
+    static final Migration[] MIGRATIONS = {MIGRATION_1_2, MIGRATION_2_3, MIGRATION_3_4, MIGRATION_4_5};
+
+    public static Executor databaseExecutor() {
+        return DATABASE_EXECUTOR;
+    }
+
     public static AppDatabase getInstance(Context context) {
         if (INSTANCE == null) {
             synchronized (AppDatabase.class) {
@@ -24,8 +138,10 @@ public abstract class AppDatabase extends RoomDatabase {
                                     AppDatabase.class,
                                     "weather_db"
                             )
-                            .fallbackToDestructiveMigration()
-                            .allowMainThreadQueries()
+                            // 所有版本升级都有迁移，升级不再清空用户的城市
+                            .addMigrations(MIGRATIONS)
+                            .setQueryExecutor(DATABASE_EXECUTOR)
+                            .setJournalMode(JOURNAL_MODE)
                             .build();
                 }
             }
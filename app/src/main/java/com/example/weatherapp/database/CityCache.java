@@ -0,0 +1,490 @@
+package com.example.weatherapp.database;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.room.InvalidationTracker;
+
+import com.example.weatherapp.models.City;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+/**
+ * 城市内存缓存
+ * 城市表很小，首次访问时整表读入内存，之后按id、名称、locationId查找都是O(1)，不再访问数据库；
+ * 写操作先写数据库再同步更新内存（write-through）；
+ * 通过Room的InvalidationTracker监听city表，有其他途径的写入时在数据库线程中重新加载整表，
+ * 自身写入引起的通知跳过（内存已是最新）
+ * 返回的City都是副本，调用方修改后需要调用updateAsync写回
+ */
+public class CityCache {
+
+    private static final String TAG = "CityCache";
+
+    private static volatile CityCache INSTANCE;
+
+    private final CityDao dao;
+
+    // 以下字段都由this保护
+    private final Map<Long, City> byId = new LinkedHashMap<>();
+    private final Map<String, City> byName = new HashMap<>();
+    private final Map<String, City> byLocationId = new HashMap<>();
+    private boolean loaded;
+    private CompletableFuture<Void> loading;
+    /** 每次失效或内存写入加一，用于丢弃之前开始的加载结果 */
+    private long generation;
+    /** 自身尚未收到通知的写入数，InvalidationTracker通知时清零 */
+    private final AtomicInteger ownWrites = new AtomicInteger();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong reloads = new AtomicLong();
+
+    private CityCache(AppDatabase database) {
+        this.dao = database.cityDao();
+        // 注册观察者可能同步触发器（访问数据库），放到数据库线程中执行
+        AppDatabase.databaseExecutor().execute(() ->
+                database.getInvalidationTracker().addObserver(new InvalidationTracker.Observer("city") {
+                    @Override
+                    public void onInvalidated(@NonNull Set<String> tables) {
+                        // 自身的写入已同步到内存，不需要重新加载（连续写入的通知可能合并为一次，所以清零）
+                        if (ownWrites.getAndSet(0) > 0) {
+                            return;
+                        }
+                        invalidate();
+                    }
+                }));
+    }
+
+    public static CityCache getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (CityCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new CityCache(AppDatabase.getInstance(context));
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    // ==================== 查询 ====================
+
+    public CompletableFuture<List<City>> getAllAsync() {
+        return read(() -> {
+            List<City> cities = new ArrayList<>(byId.size());
+            for (City city : byId.values()) {
+                cities.add(copy(city));
+            }
+            return cities;
+        });
+    }
+
+    public CompletableFuture<City> getByIdAsync(long id) {
+        return read(() -> copy(byId.get(id)));
+    }
+
+    public CompletableFuture<City> getByNameAsync(String name) {
+        return read(() -> copy(byName.get(name)));
+    }
+
+    public CompletableFuture<City> getByLocationIdAsync(String locationId) {
+        return read(() -> copy(byLocationId.get(locationId)));
+    }
+
+    /**
+     * 先按locationId查找，找不到再按名称查找
+     */
+    public CompletableFuture<City> findAsync(String locationId, String name) {
+        return read(() -> {
+            City city = locationId != null ? byLocationId.get(locationId) : null;
+            if (city == null && name != null) {
+                city = byName.get(name);
+            }
+            return copy(city);
+        });
+    }
+
+    /**
+     * 已保存城市中离坐标最近的k个（由近到远），没有经纬度的城市跳过
+     * 已保存的城市很少，直接遍历；预打包城市库见{@link GazetteerDao#findNearest(double, double, int)}
+     */
+    public CompletableFuture<List<City>> findNearestAsync(double latitude, double longitude, int k) {
+        return read(() -> {
+            List<City> cities = new ArrayList<>();
+            List<Double> distances = new ArrayList<>();
+            for (City city : byId.values()) {
+                double lat = GeoGrid.parseDegrees(city.latitude);
+                double lon = GeoGrid.parseDegrees(city.longitude);
+                if (Double.isNaN(lat) || Double.isNaN(lon)) {
+                    continue;
+                }
+                double distance = GeoGrid.distanceKm(latitude, longitude, lat, lon);
+                int index = 0;
+                while (index < distances.size() && distances.get(index) <= distance) {
+                    index++;
+                }
+                if (index < k) {
+                    cities.add(index, copy(city));
+                    distances.add(index, distance);
+                    if (cities.size() > k) {
+                        cities.remove(k);
+                        distances.remove(k);
+                    }
+                }
+            }
+            return cities;
+        });
+    }
+
+    // ==================== 写入 ====================
+
+    /**
+     * 按locationId插入或更新，见{@link CityDao#upsert(City)}
+     * @return 新插入返回true，更新已有城市返回false
+     */
+    public CompletableFuture<Boolean> upsertAsync(City city) {
+        City value = copy(city);
+        return CompletableFuture.supplyAsync(() -> {
+            boolean inserted = write(() -> dao.upsert(value), result -> true);
+            put(value);
+            return inserted;
+        }, AppDatabase.databaseExecutor());
+    }
+
+    public CompletableFuture<Void> updateAsync(City city) {
+        City value = copy(city);
+        return CompletableFuture.runAsync(() -> {
+            // 数据库中已没有这一行（例如已被删除）时不写入内存，否则会留下幽灵城市
+            if (write(() -> dao.update(value), updated -> updated > 0) > 0) {
+                put(value);
+            }
+        }, AppDatabase.databaseExecutor());
+    }
+
+    public CompletableFuture<Void> deleteByNameAsync(String name) {
+        return CompletableFuture.runAsync(() -> {
+            write(() -> dao.deleteCity(name), deleted -> deleted > 0);
+            removeByName(name);
+        }, AppDatabase.databaseExecutor());
+    }
+
+    /**
+     * 批量插入，locationId已存在的城市跳过，见{@link CityDao#insertAll(List)}
+     * @return 插入的城市数
+     */
+    public CompletableFuture<Integer> insertAllAsync(List<City> cities) {
+        List<City> values = new ArrayList<>(cities.size());
+        for (City city : cities) {
+            values.add(copy(city));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            long[] ids = write(() -> dao.insertAll(values), CityCache::anyInserted);
+            int inserted = 0;
+            for (int i = 0; i < ids.length; i++) {
+                if (ids[i] != -1) {
+                    City value = values.get(i);
+                    value.id = ids[i];
+                    put(value);
+                    inserted++;
+                }
+            }
+            return inserted;
+        }, AppDatabase.databaseExecutor());
+    }
+
+    /**
+     * 批量删除，在一个事务中完成
+     * 先从内存中移除（调用返回后的查询已看不到这些城市），再写数据库；写入失败时重新加载整表
+     * 提交后再移除一次：提交前开始的加载可能读到这些城市，移除时递增generation使其结果作废
+     */
+    public CompletableFuture<Integer> deleteByLocationIdsAsync(List<String> locationIds) {
+        List<String> ids = new ArrayList<>(locationIds);
+        removeByLocationIds(ids);
+        CompletableFuture<Integer> future = CompletableFuture.supplyAsync(() -> {
+            int deleted = write(() -> dao.deleteByLocationIds(ids), count -> count > 0);
+            removeByLocationIds(ids);
+            return deleted;
+        }, AppDatabase.databaseExecutor());
+        future.whenComplete((deleted, error) -> {
+            if (error != null) {
+                Log.e(TAG, "批量删除失败", error);
+                invalidate();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * 批量更新经纬度，见{@link CityDao#updateCoordinates(List)}
+     */
+    public CompletableFuture<Integer> updateCoordinatesAsync(List<City> cities) {
+        List<City> values = new ArrayList<>(cities.size());
+        for (City city : cities) {
+            values.add(copy(city));
+        }
+        return CompletableFuture.supplyAsync(() -> {
+            int updated = write(() -> dao.updateCoordinates(values), count -> count > 0);
+            updateCoordinatesInMemory(values);
+            return updated;
+        }, AppDatabase.databaseExecutor());
+    }
+
+    // ==================== 统计 ====================
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /**
+     * 命中率（0~1），没有查询时为0
+     */
+    public double getHitRate() {
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public void resetStats() {
+        hits.set(0);
+        misses.set(0);
+        reloads.set(0);
+    }
+
+    public String dump() {
+        int size;
+        synchronized (this) {
+            size = byId.size();
+        }
+        return "cities=" + size
+                + " hits=" + hits.get()
+                + " misses=" + misses.get()
+                + " hitRate=" + String.format(Locale.US, "%.1f%%", getHitRate() * 100)
+                + " reloads=" + reloads.get() + "\n";
+    }
+
+    // ==================== 内部实现 ====================
+
+    private interface Reader<T> {
+        T read();
+    }
+
+    private interface Writer<T> {
+        T write();
+    }
+
+    /**
+     * 执行自身的写入并计入ownWrites，对应的InvalidationTracker通知不再触发重新加载
+     * 没有改动任何行时不会有通知，也不计入
+     * @param changed 根据写入结果判断是否改动了行
+     */
+    private <T> T write(Writer<T> writer, Predicate<T> changed) {
+        ownWrites.incrementAndGet();
+        T result;
+        try {
+            result = writer.write();
+        } catch (RuntimeException e) {
+            ownWrites.decrementAndGet();
+            throw e;
+        }
+        if (!changed.test(result)) {
+            ownWrites.decrementAndGet();
+        }
+        return result;
+    }
+
+    private static boolean anyInserted(long[] ids) {
+        for (long id : ids) {
+            if (id != -1) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 已加载时在当前线程直接读内存；否则等整表加载完成后在数据库线程中读
+     */
+    private <T> CompletableFuture<T> read(Reader<T> reader) {
+        CompletableFuture<Void> pending;
+        synchronized (this) {
+            if (loaded) {
+                hits.incrementAndGet();
+                return CompletableFuture.completedFuture(reader.read());
+            }
+            misses.incrementAndGet();
+            pending = startLoadLocked();
+        }
+        return pending.thenApply(ignored -> {
+            synchronized (this) {
+                return reader.read();
+            }
+        });
+    }
+
+    private CompletableFuture<Void> startLoadLocked() {
+        if (loading == null) {
+            loading = CompletableFuture.runAsync(this::load, AppDatabase.databaseExecutor());
+            loading.whenComplete((ignored, error) -> {
+                if (error != null) {
+                    // 加载失败时下次查询重新加载
+                    Log.e(TAG, "加载城市失败", error);
+                    synchronized (this) {
+                        loading = null;
+                    }
+                }
+            });
+        }
+        return loading;
+    }
+
+    private void load() {
+        while (true) {
+            long startGeneration;
+            synchronized (this) {
+                startGeneration = generation;
+            }
+            List<City> cities = dao.getAllCities();
+            reloads.incrementAndGet();
+            synchronized (this) {
+                if (startGeneration != generation) {
+                    // 加载期间又有写入，结果可能已过期，重新加载
+                    continue;
+                }
+                byId.clear();
+                byName.clear();
+                byLocationId.clear();
+                for (City city : cities) {
+                    index(city);
+                }
+                loaded = true;
+                loading = null;
+                return;
+            }
+        }
+    }
+
+    /**
+     * city表有写入：保留当前内容继续提供查询（自身的写入已同步到内存），在后台重新加载整表
+     */
+    private void invalidate() {
+        synchronized (this) {
+            generation++;
+            if (loaded) {
+                startLoadLocked();
+            }
+        }
+        Log.d(TAG, "city表已变化，重新加载");
+    }
+
+    private synchronized void put(City city) {
+        generation++;
+        if (!loaded) {
+            return;
+        }
+        City old = byId.remove(city.id);
+        if (old != null) {
+            unindex(old);
+        }
+        City existing = city.locationId != null ? byLocationId.get(city.locationId) : null;
+        if (existing != null) {
+            byId.remove(existing.id);
+            unindex(existing);
+        }
+        index(city);
+    }
+
+    private synchronized void removeByName(String name) {
+        generation++;
+        if (!loaded) {
+            return;
+        }
+        List<City> removed = new ArrayList<>();
+        for (City city : byId.values()) {
+            if (name.equals(city.name)) {
+                removed.add(city);
+            }
+        }
+        for (City city : removed) {
+            byId.remove(city.id);
+            unindex(city);
+        }
+    }
+
+    private synchronized void removeByLocationIds(List<String> locationIds) {
+        generation++;
+        if (!loaded) {
+            return;
+        }
+        for (String locationId : locationIds) {
+            City city = byLocationId.get(locationId);
+            if (city != null) {
+                byId.remove(city.id);
+                unindex(city);
+            }
+        }
+    }
+
+    private synchronized void updateCoordinatesInMemory(List<City> cities) {
+        generation++;
+        if (!loaded) {
+            return;
+        }
+        for (City value : cities) {
+            City city = value.locationId != null ? byLocationId.get(value.locationId) : null;
+            if (city != null) {
+                city.latitude = value.latitude;
+                city.longitude = value.longitude;
+            }
+        }
+    }
+
+    private void index(City city) {
+        byId.put(city.id, city);
+        if (city.name != null) {
+            byName.putIfAbsent(city.name, city);
+        }
+        if (city.locationId != null) {
+            byLocationId.put(city.locationId, city);
+        }
+    }
+
+    private void unindex(City city) {
+        if (city.name != null && byName.get(city.name) == city) {
+            byName.remove(city.name);
+            // 同名的其他城市补上名称索引
+            for (City other : byId.values()) {
+                if (city.name.equals(other.name)) {
+                    byName.put(other.name, other);
+                    break;
+                }
+            }
+        }
+        if (city.locationId != null && byLocationId.get(city.locationId) == city) {
+            byLocationId.remove(city.locationId);
+        }
+    }
+
+    private static City copy(City city) {
+        if (city == null) {
+            return null;
+        }
+        City copy = new City(city.name, city.locationId, city.latitude, city.longitude);
+        copy.id = city.id;
+        return copy;
+    }
+}
@@ -3,25 +3,40 @@ package com.example.weatherapp.database;
 import androidx.room.Dao;
 import androidx.room.Delete;
 import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
 import androidx.room.Query;
+import androidx.room.Transaction;
 import androidx.room.Update;
 
 import com.example.weatherapp.models.City;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 城市数据访问对象
  * 提供城市数据的增删查改操作
+ * 同步方法不能在主线程调用；界面代码使用Async方法，在数据库线程池中执行并返回CompletableFuture
+ * 批量方法在一个事务中完成，只获取一次写锁、提交一次
  */
 @Dao
 public interface CityDao {
 
+    /** 单条语句的参数个数上限（SQLite默认最多999个） */
+    int MAX_BIND_ARGS = 500;
+
     @Insert
-    void insert(City city);
+    long insert(City city);
+
+    /**
+     * 批量插入，locationId已存在的城市跳过
+     * @return 每个城市的新id，跳过的为-1
+     */
+    @Insert(onConflict = OnConflictStrategy.IGNORE)
+    long[] insertAll(List<City> cities);
 
     @Update
-    void update(City city);
+    int update(City city);
 
     @Query("SELECT * FROM city")
     List<City> getAllCities();
@@ -30,11 +45,105 @@ public interface CityDao {
     City getCityByName(String cityName);
 
     @Query("DELETE FROM city WHERE name = :cityName")
-    void deleteCity(String cityName);
+    int deleteCity(String cityName);
 
     @Query("SELECT COUNT(*) FROM city WHERE locationId = :locationId")
     int countByLocationId(String locationId);
 
     @Query("SELECT * FROM city WHERE locationId = :locationId LIMIT 1")
     City getCityByLocationId(String locationId);
+
+    @Query("DELETE FROM city WHERE locationId IN (:locationIds)")
+    int deleteByLocationIdChunk(List<String> locationIds);
+
+    /**
+     * 批量按locationId删除，参数过多时分成多条语句，在同一个事务中执行
+     * @return 删除的行数
+     */
+    @Transaction
+    default int deleteByLocationIds(List<String> locationIds) {
+        int deleted = 0;
+        for (int from = 0; from < locationIds.size(); from += MAX_BIND_ARGS) {
+            deleted += deleteByLocationIdChunk(
+                    locationIds.subList(from, Math.min(from + MAX_BIND_ARGS, locationIds.size())));
+        }
+        return deleted;
+    }
+
+    @Query("UPDATE city SET latitude = :latitude, longitude = :longitude WHERE locationId = :locationId")
+    int updateCoordinates(String locationId, String latitude, String longitude);
+
+    /**
+     * 批量更新经纬度（按各城市的locationId），在同一个事务中执行
+     * @return 更新的行数
+     */
+    @Transaction
+    default int updateCoordinates(List<City> cities) {
+        int updated = 0;
+        for (City city : cities) {
+            updated += updateCoordinates(city.locationId, city.latitude, city.longitude);
+        }
+        return updated;
+    }
+
+    /**
+     * 按locationId插入或更新（locationId唯一）
+     * 已存在时更新名称，新数据没有经纬度时保留原有经纬度
+     * @return 新插入返回true，更新已有城市返回false
+     */
+    @Transaction
+    default boolean upsert(City city) {
+        City existing = getCityByLocationId(city.locationId);
+        if (existing == null) {
+            city.id = insert(city);
+            return true;
+        }
+        city.id = existing.id;
+        if (city.latitude == null || city.latitude.isEmpty()
+                || city.longitude == null || city.longitude.isEmpty()) {
+            city.latitude = existing.latitude;
+            city.longitude = existing.longitude;
+        }
+        update(city);
+        return false;
+    }
+
+    // ==================== 异步方法 ====================
+
+    default CompletableFuture<List<City>> getAllCitiesAsync() {
+        return CompletableFuture.supplyAsync(this::getAllCities, AppDatabase.databaseExecutor());
+    }
+
+    default CompletableFuture<City> getCityByNameAsync(String cityName) {
+        return CompletableFuture.supplyAsync(() -> getCityByName(cityName), AppDatabase.databaseExecutor());
+    }
+
+    default CompletableFuture<City> getCityByLocationIdAsync(String locationId) {
+        return CompletableFuture.supplyAsync(() -> getCityByLocationId(locationId), AppDatabase.databaseExecutor());
+    }
+
+    /**
+     * 先按locationId查找，找不到再按名称查找
+     */
+    default CompletableFuture<City> findCityAsync(String locationId, String cityName) {
+        return CompletableFuture.supplyAsync(() -> {
+            City city = locationId != null ? getCityByLocationId(locationId) : null;
+            if (city == null && cityName != null) {
+                city = getCityByName(cityName);
+            }
+            return city;
+        }, AppDatabase.databaseExecutor());
+    }
+
+    default CompletableFuture<Boolean> upsertAsync(City city) {
+        return CompletableFuture.supplyAsync(() -> upsert(city), AppDatabase.databaseExecutor());
+    }
+
+    default CompletableFuture<Void> updateAsync(City city) {
+        return CompletableFuture.runAsync(() -> update(city), AppDatabase.databaseExecutor());
+    }
+
+    default CompletableFuture<Void> deleteCityAsync(String cityName) {
+        return CompletableFuture.runAsync(() -> deleteCity(cityName), AppDatabase.databaseExecutor());
+    }
 }
@@ -0,0 +1,104 @@
+package com.example.weatherapp.database;
+
+import androidx.room.Dao;
+import androidx.room.Query;
+
+import com.example.weatherapp.models.GazetteerCity;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 预打包城市库查询
+ */
+@Dao
+public interface GazetteerDao {
+
+    /** 查找最近城市时最多向外扩展的网格圈数（约1100千米） */
+    int MAX_RING = 20;
+
+    /**
+     * 全文索引匹配，名称与关键字完全相同的排在前面，其次名称短的在前
+     * @param match   FTS匹配表达式，见{@link #toMatchQuery(String)}
+     * @param keyword 原始关键字，用于排序
+     */
+    @Query("SELECT c.* FROM gazetteer_city c JOIN gazetteer_city_fts ON c.id = gazetteer_city_fts.rowid "
+            + "WHERE gazetteer_city_fts MATCH :match "
+            + "ORDER BY c.name = :keyword DESC, LENGTH(c.name), c.id LIMIT :limit")
+    List<GazetteerCity> search(String match, String keyword, int limit);
+
+    /**
+     * 按关键字前缀搜索，在数据库线程池中执行
+     */
+    default CompletableFuture<List<GazetteerCity>> searchAsync(String keyword, int limit) {
+        return CompletableFuture.supplyAsync(() -> search(toMatchQuery(keyword), keyword, limit),
+                AppDatabase.databaseExecutor());
+    }
+
+    /**
+     * 按locationId批量查询，参数个数不超过{@link CityDao#MAX_BIND_ARGS}
+     */
+    @Query("SELECT * FROM gazetteer_city WHERE locationId IN (:locationIds)")
+    List<GazetteerCity> getByLocationIds(List<String> locationIds);
+
+    @Query("SELECT * FROM gazetteer_city WHERE gridCell IN (:cells)")
+    List<GazetteerCity> getByGridCells(int[] cells);
+
+    /**
+     * 按大圆距离查找离坐标最近的k个城市（由近到远，distanceKm已填写）
+     * 从坐标所在网格开始逐圈读取，已有k个城市且第k个比未读取范围更近时停止；
+     * 最多查找MAX_RING圈，范围内不足k个时返回已找到的城市
+     */
+    default List<GazetteerCity> findNearest(double latitude, double longitude, int k) {
+        List<GazetteerCity> found = new ArrayList<>();
+        if (k <= 0) {
+            return found;
+        }
+        Comparator<GazetteerCity> byDistance = Comparator.comparingDouble(c -> c.distanceKm);
+        int row = GeoGrid.rowOf(latitude);
+        int column = GeoGrid.columnOf(longitude);
+        for (int ring = 0; ring <= MAX_RING; ring++) {
+            for (GazetteerCity city : getByGridCells(GeoGrid.ringCells(row, column, ring))) {
+                double lat = GeoGrid.parseDegrees(city.latitude);
+                double lon = GeoGrid.parseDegrees(city.longitude);
+                if (Double.isNaN(lat) || Double.isNaN(lon)) {
+                    continue;
+                }
+                city.distanceKm = GeoGrid.distanceKm(latitude, longitude, lat, lon);
+                found.add(city);
+            }
+            if (found.size() >= k) {
+                found.sort(byDistance);
+                if (found.get(k - 1).distanceKm <= GeoGrid.coveredKm(latitude, ring)) {
+                    break;
+                }
+            }
+        }
+        found.sort(byDistance);
+        return found.size() > k ? new ArrayList<>(found.subList(0, k)) : found;
+    }
+
+    default CompletableFuture<List<GazetteerCity>> findNearestAsync(double latitude, double longitude, int k) {
+        return CompletableFuture.supplyAsync(() -> findNearest(latitude, longitude, k),
+                AppDatabase.databaseExecutor());
+    }
+
+    /**
+     * 把用户输入转换为FTS前缀匹配表达式：按空白分词，每个词加引号和前缀通配符，词之间为AND
+     */
+    static String toMatchQuery(String keyword) {
+        StringBuilder sb = new StringBuilder();
+        for (String term : keyword.trim().split("\\s+")) {
+            if (term.isEmpty()) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(' ');
+            }
+            sb.append('"').append(term.replace("\"", "\"\"")).append("*\"");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.weatherapp.database;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.os.CancellationSignal;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.room.Database;
+import androidx.room.Room;
+import androidx.room.RoomDatabase;
+import androidx.sqlite.db.SupportSQLiteQuery;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.weatherapp.models.GazetteerCity;
+import com.example.weatherapp.models.GazetteerCityFts;
+
+/**
+ * 预打包的城市库（只读），用于离线搜索城市
+ * 首次打开时从assets/databases/gazetteer.db复制；该文件由db/source/build_gazetteer.py生成，
+ * 表结构以脚本为准，不导出schema。更新数据后增加版本号，升级时丢弃旧库重新从asset复制
+ */
+@Database(entities = {GazetteerCity.class, GazetteerCityFts.class}, version = 2, exportSchema = false)
+public abstract class GazetteerDatabase extends RoomDatabase {
+
+    private static final String ASSET_PATH = "databases/gazetteer.db";
+
+    private static volatile GazetteerDatabase INSTANCE;
+
+    public abstract GazetteerDao gazetteerDao();
+
+    /**
+     * 离线搜索的FTS查询同样计入QueryProfiler
+     */
+    @NonNull
+    @Override
+    public Cursor query(@NonNull SupportSQLiteQuery query, @Nullable CancellationSignal signal) {
+        long startNanos = System.nanoTime();
+        return QueryProfiler.getInstance().profile(query.getSql(), startNanos, super.query(query, signal));
+    }
+
+    @NonNull
+    @Override
+    public SupportSQLiteStatement compileStatement(@NonNull String sql) {
+        return QueryProfiler.getInstance().profile(sql, super.compileStatement(sql));
+    }
+
+    public static GazetteerDatabase getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (GazetteerDatabase.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = Room.databaseBuilder(
+                                    context.getApplicationContext(),
+                                    GazetteerDatabase.class,
+                                    "gazetteer_db"
+                            )
+                            .createFromAsset(ASSET_PATH)
+                            .fallbackToDestructiveMigration()
+                            .setQueryExecutor(AppDatabase.databaseExecutor())
+                            .build();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.weatherapp.database;
+
+import java.util.Arrays;
+
+/**
+ * 经纬度网格
+ * 把地球按CELL_DEGREES划分为网格，每个城市存所在网格的编号（gridCell列，有索引），
+ * 查找最近城市时只读取目标点周围几圈网格中的城市，再按大圆距离排序
+ * 网格划分必须与db/source/build_gazetteer.py中的grid_cell一致
+ */
+public final class GeoGrid {
+
+    public static final double CELL_DEGREES = 0.5;
+    static final int ROWS = (int) (180 / CELL_DEGREES);
+    static final int COLUMNS = (int) (360 / CELL_DEGREES);
+
+    private static final double EARTH_RADIUS_KM = 6371.0088;
+    /** 一度纬度对应的距离 */
+    private static final double KM_PER_DEGREE = Math.PI * EARTH_RADIUS_KM / 180;
+
+    private GeoGrid() {
+    }
+
+    public static int cellOf(double latitude, double longitude) {
+        return cell(rowOf(latitude), columnOf(longitude));
+    }
+
+    static int rowOf(double latitude) {
+        int row = (int) Math.floor((latitude + 90) / CELL_DEGREES);
+        return Math.max(0, Math.min(ROWS - 1, row));
+    }
+
+    static int columnOf(double longitude) {
+        int column = (int) Math.floor((longitude + 180) / CELL_DEGREES);
+        return Math.floorMod(column, COLUMNS);
+    }
+
+    static int cell(int row, int column) {
+        return row * COLUMNS + Math.floorMod(column, COLUMNS);
+    }
+
+    /**
+     * 以(row, column)为中心的第ring圈网格（ring为0时只有中心网格），超出南北极的行跳过，经度方向首尾相接
+     * @return 网格编号，数量不超过8*ring
+     */
+    static int[] ringCells(int row, int column, int ring) {
+        if (ring == 0) {
+            return new int[]{cell(row, column)};
+        }
+        int[] cells = new int[8 * ring];
+        int count = 0;
+        for (int r = row - ring; r <= row + ring; r++) {
+            if (r < 0 || r >= ROWS) {
+                continue;
+            }
+            if (r == row - ring || r == row + ring) {
+                for (int c = column - ring; c <= column + ring; c++) {
+                    count = add(cells, count, cell(r, c));
+                }
+            } else {
+                count = add(cells, count, cell(r, column - ring));
+                count = add(cells, count, cell(r, column + ring));
+            }
+        }
+        return Arrays.copyOf(cells, count);
+    }
+
+    private static int add(int[] cells, int count, int cell) {
+        // 圈数接近半个经度周长时首尾网格会重合
+        for (int i = 0; i < count; i++) {
+            if (cells[i] == cell) {
+                return count;
+            }
+        }
+        cells[count] = cell;
+        return count + 1;
+    }
+
+    /**
+     * 已查找完0..ring圈后，范围外的城市与目标点的最小距离（保守估计）
+     * 纬度方向至少相隔ring个网格；经度方向按范围内最高纬度处的经线间距计算
+     */
+    static double coveredKm(double latitude, int ring) {
+        double span = ring * CELL_DEGREES;
+        double maxLatitude = Math.min(90, Math.abs(latitude) + span + CELL_DEGREES);
+        double lonKm = span * KM_PER_DEGREE * Math.cos(Math.toRadians(maxLatitude));
+        return Math.min(span * KM_PER_DEGREE, lonKm);
+    }
+
+    /**
+     * 大圆距离（haversine公式），单位千米
+     */
+    public static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+        double dLat = Math.toRadians(lat2 - lat1);
+        double dLon = Math.toRadians(lon2 - lon1);
+        double a = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+                * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    /**
+     * 解析字符串形式的经纬度，无效时返回NaN
+     */
+    public static double parseDegrees(String value) {
+        if (value == null || value.isEmpty()) {
+            return Double.NaN;
+        }
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            return Double.NaN;
+        }
+    }
+}
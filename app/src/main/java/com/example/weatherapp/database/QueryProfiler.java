@@ -0,0 +1,320 @@
+package com.example.weatherapp.database;
+
+import android.database.Cursor;
+import android.database.CursorWrapper;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.sqlite.db.SupportSQLiteStatement;
+
+import com.example.weatherapp.utils.Histogram;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * 数据库语句耗时统计
+ * 在语句实际执行的地方计时：查询从执行到Cursor关闭（包括逐行读取），写入语句为execute等调用本身，
+ * 由AppDatabase、GazetteerDatabase覆盖query/compileStatement接入。按语句记录直方图，统计主线程上执行的语句数，
+ * 超过SLOW_QUERY_MS的语句打印警告并保留最近几条
+ * 关闭时不计时，开销只有一次volatile读；开启时应用进入后台会把汇总输出到logcat
+ */
+public final class QueryProfiler {
+
+    private static final String TAG = "QueryProfiler";
+
+    static final long SLOW_QUERY_MS = 50;
+    private static final long[] BUCKET_BOUNDS = {1, 2, 5, 10, 25, 50, 100, 250, 500, 1000};
+    /** 最多统计的不同语句数，超出的归入OTHER */
+    private static final int MAX_STATEMENTS = 100;
+    private static final String OTHER = "(other)";
+    private static final int MAX_SLOW_QUERIES = 20;
+    private static final int MAX_SQL_LENGTH = 160;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    /** IN (?,?,?)的参数个数不同也算同一条语句 */
+    private static final Pattern PLACEHOLDER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+
+    private static final QueryProfiler INSTANCE = new QueryProfiler();
+
+    private volatile boolean enabled;
+    private final Map<String, Histogram> statements = new ConcurrentHashMap<>();
+    private final AtomicLong queries = new AtomicLong();
+    private final AtomicLong mainThreadQueries = new AtomicLong();
+    private final ArrayDeque<String> slowQueries = new ArrayDeque<>();
+
+    private QueryProfiler() {
+    }
+
+    public static QueryProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * 查询结果包装为关闭时结束计时的Cursor，关闭统计时原样返回
+     * @param startNanos 执行查询前的System.nanoTime()
+     */
+    Cursor profile(String sql, long startNanos, Cursor cursor) {
+        if (!enabled) {
+            return cursor;
+        }
+        return new ProfiledCursor(cursor, normalize(sql), startNanos);
+    }
+
+    /**
+     * 包装预编译语句（Room会缓存并复用），每次执行时计时
+     */
+    SupportSQLiteStatement profile(String sql, SupportSQLiteStatement statement) {
+        return new ProfiledStatement(statement, normalize(sql));
+    }
+
+    /**
+     * 开始计时，关闭统计时返回0
+     */
+    private long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    private void record(String sql, long startNanos) {
+        if (startNanos == 0) {
+            return;
+        }
+        long millis = (System.nanoTime() - startNanos) / 1_000_000;
+        boolean mainThread = Looper.getMainLooper().isCurrentThread();
+        queries.incrementAndGet();
+        if (mainThread) {
+            mainThreadQueries.incrementAndGet();
+        }
+        histogramOf(sql).record(millis);
+        if (millis >= SLOW_QUERY_MS) {
+            String entry = new SimpleDateFormat("HH:mm:ss", Locale.US).format(new Date())
+                    + " " + millis + "ms" + (mainThread ? " [main]" : "") + " " + sql;
+            Log.w(TAG, "slow query " + entry);
+            synchronized (slowQueries) {
+                if (slowQueries.size() >= MAX_SLOW_QUERIES) {
+                    slowQueries.removeFirst();
+                }
+                slowQueries.addLast(entry);
+            }
+        }
+    }
+
+    /**
+     * 关闭时结束计时的Cursor
+     */
+    private final class ProfiledCursor extends CursorWrapper {
+        private final String sql;
+        private final long startNanos;
+        private boolean recorded;
+
+        ProfiledCursor(Cursor cursor, String sql, long startNanos) {
+            super(cursor);
+            this.sql = sql;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void close() {
+            super.close();
+            if (!recorded) {
+                recorded = true;
+                record(sql, startNanos);
+            }
+        }
+    }
+
+    /**
+     * 执行时计时的预编译语句，绑定参数直接转发
+     */
+    private final class ProfiledStatement implements SupportSQLiteStatement {
+        private final SupportSQLiteStatement delegate;
+        private final String sql;
+
+        ProfiledStatement(SupportSQLiteStatement delegate, String sql) {
+            this.delegate = delegate;
+            this.sql = sql;
+        }
+
+        @Override
+        public void execute() {
+            long startNanos = start();
+            try {
+                delegate.execute();
+            } finally {
+                record(sql, startNanos);
+            }
+        }
+
+        @Override
+        public int executeUpdateDelete() {
+            long startNanos = start();
+            try {
+                return delegate.executeUpdateDelete();
+            } finally {
+                record(sql, startNanos);
+            }
+        }
+
+        @Override
+        public long executeInsert() {
+            long startNanos = start();
+            try {
+                return delegate.executeInsert();
+            } finally {
+                record(sql, startNanos);
+            }
+        }
+
+        @Override
+        public long simpleQueryForLong() {
+            long startNanos = start();
+            try {
+                return delegate.simpleQueryForLong();
+            } finally {
+                record(sql, startNanos);
+            }
+        }
+
+        @Override
+        public String simpleQueryForString() {
+            long startNanos = start();
+            try {
+                return delegate.simpleQueryForString();
+            } finally {
+                record(sql, startNanos);
+            }
+        }
+
+        @Override
+        public void bindNull(int index) {
+            delegate.bindNull(index);
+        }
+
+        @Override
+        public void bindLong(int index, long value) {
+            delegate.bindLong(index, value);
+        }
+
+        @Override
+        public void bindDouble(int index, double value) {
+            delegate.bindDouble(index, value);
+        }
+
+        @Override
+        public void bindString(int index, @NonNull String value) {
+            delegate.bindString(index, value);
+        }
+
+        @Override
+        public void bindBlob(int index, @NonNull byte[] value) {
+            delegate.bindBlob(index, value);
+        }
+
+        @Override
+        public void clearBindings() {
+            delegate.clearBindings();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private Histogram histogramOf(String sql) {
+        Histogram histogram = statements.get(sql);
+        if (histogram == null) {
+            String key = statements.size() < MAX_STATEMENTS ? sql : OTHER;
+            statements.putIfAbsent(key, new Histogram(BUCKET_BOUNDS));
+            histogram = statements.get(key);
+        }
+        return histogram;
+    }
+
+    static String normalize(String sql) {
+        String normalized = PLACEHOLDER_LIST.matcher(WHITESPACE.matcher(sql.trim()).replaceAll(" "))
+                .replaceAll("?,…");
+        return normalized.length() > MAX_SQL_LENGTH ? normalized.substring(0, MAX_SQL_LENGTH) + "…" : normalized;
+    }
+
+    public long getQueryCount() {
+        return queries.get();
+    }
+
+    public long getMainThreadQueryCount() {
+        return mainThreadQueries.get();
+    }
+
+    public void reset() {
+        statements.clear();
+        queries.set(0);
+        mainThreadQueries.set(0);
+        synchronized (slowQueries) {
+            slowQueries.clear();
+        }
+    }
+
+    /**
+     * 把汇总输出到logcat（正式包没有调试页，开启统计后通过adb logcat -s QueryProfiler查看）
+     * 按行输出，避免单条日志超长被截断
+     */
+    public void logSummary() {
+        for (String line : dump().split("\n")) {
+            if (!line.isEmpty()) {
+                Log.i(TAG, line);
+            }
+        }
+    }
+
+    /**
+     * 导出为文本：汇总、按总耗时排序的语句、最近的慢语句
+     */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("enabled=").append(enabled)
+                .append(" journal=").append(AppDatabase.JOURNAL_MODE)
+                .append(" queries=").append(queries.get())
+                .append(" mainThread=").append(mainThreadQueries.get()).append('\n');
+
+        List<Map.Entry<String, Histogram>> entries = new ArrayList<>(statements.entrySet());
+        entries.sort((a, b) -> Long.compare(b.getValue().getTotalMillis(), a.getValue().getTotalMillis()));
+        sb.append("count\ttotalMs\tavgMs\tp50Ms\tp90Ms\tp99Ms\tmaxMs\tsql\n");
+        for (Map.Entry<String, Histogram> entry : entries) {
+            Histogram h = entry.getValue();
+            sb.append(h.getCount()).append('\t')
+                    .append(h.getTotalMillis()).append('\t')
+                    .append(h.getAverageMillis()).append('\t')
+                    .append(h.percentile(0.5)).append('\t')
+                    .append(h.percentile(0.9)).append('\t')
+                    .append(h.percentile(0.99)).append('\t')
+                    .append(h.getMaxMillis()).append('\t')
+                    .append(entry.getKey()).append('\n');
+        }
+
+        sb.append("\nslow (>=").append(SLOW_QUERY_MS).append("ms)\n");
+        synchronized (slowQueries) {
+            for (String entry : slowQueries) {
+                sb.append(entry).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.weatherapp.database;
+
+import androidx.room.Dao;
+import androidx.room.Insert;
+import androidx.room.OnConflictStrategy;
+import androidx.room.Query;
+import androidx.room.Transaction;
+
+import com.example.weatherapp.models.WeatherSnapshot;
+
+import java.util.List;
+
+/**
+ * 天气快照数据访问对象
+ * 同步方法不能在主线程调用，由SnapshotStore在数据库线程池中执行
+ */
+@Dao
+public interface WeatherSnapshotDao {
+
+    @Query("SELECT * FROM weather_snapshot WHERE locationId = :locationId AND fetchTime >= :minFetchTime")
+    List<WeatherSnapshot> getByLocationId(String locationId, long minFetchTime);
+
+    @Insert(onConflict = OnConflictStrategy.REPLACE)
+    void insertAll(List<WeatherSnapshot> snapshots);
+
+    @Query("DELETE FROM weather_snapshot WHERE locationId = :locationId")
+    int deleteByLocationId(String locationId);
+
+    @Query("DELETE FROM weather_snapshot WHERE fetchTime < :cutoff")
+    int deleteOlderThan(long cutoff);
+
+    @Query("SELECT COALESCE(SUM(LENGTH(payload)), 0) FROM weather_snapshot")
+    long getTotalPayloadLength();
+
+    /**
+     * 按最近一次写入时间从旧到新排列的城市
+     */
+    @Query("SELECT locationId FROM weather_snapshot GROUP BY locationId ORDER BY MAX(fetchTime)")
+    List<String> getLocationIdsOldestFirst();
+
+    /**
+     * 写入一次刷新得到的快照，并按TTL和总大小清理旧数据，在同一个事务中完成
+     * 只替换本次成功的部分，本次失败的部分保留上次的数据；刚写入的城市不会因超出大小上限被清理
+     * @param cutoff   早于该时间写入的快照被删除
+     * @param maxBytes 所有快照数据的总大小上限（按字符数估算）
+     */
+    @Transaction
+    default void replace(String locationId, List<WeatherSnapshot> snapshots, long cutoff, long maxBytes) {
+        insertAll(snapshots);
+        deleteOlderThan(cutoff);
+        if (getTotalPayloadLength() <= maxBytes) {
+            return;
+        }
+        for (String oldest : getLocationIdsOldestFirst()) {
+            if (oldest.equals(locationId)) {
+                continue;
+            }
+            deleteByLocationId(oldest);
+            if (getTotalPayloadLength() <= maxBytes) {
+                return;
+            }
+        }
+    }
+}
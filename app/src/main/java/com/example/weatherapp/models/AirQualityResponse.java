@@ -7,6 +7,10 @@ public class AirQualityResponse {
     @SerializedName("code")
     private String code;
 
+    // 数据的最近更新时间（仅v7/air/now返回）
+    @SerializedName("updateTime")
+    private String updateTime;
+
     @SerializedName("metadata")
     private Metadata metadata;
 
@@ -17,6 +21,14 @@ public class AirQualityResponse {
     @SerializedName("now")
     private AirNow now;
 
+    public String getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(String updateTime) {
+        this.updateTime = updateTime;
+    }
+
     public Metadata getMetadata() {
         return metadata;
     }
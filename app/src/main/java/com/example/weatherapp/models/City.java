@@ -2,9 +2,14 @@ package com.example.weatherapp.models;
 
 import androidx.room.Entity;
 import androidx.room.Ignore;
+import androidx.room.Index;
 import androidx.room.PrimaryKey;
 
-@Entity(tableName = "city")
+@Entity(tableName = "city",
+        indices = {
+                @Index(value = "locationId", unique = true),
+                @Index(value = "name")
+        })
 public class City {
 
     @PrimaryKey(autoGenerate = true)
@@ -0,0 +1,50 @@
+package com.example.weatherapp.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+import androidx.room.PrimaryKey;
+
+/**
+ * 预打包城市库中的城市（只读）
+ * 数据由db/source/build_gazetteer.py从城市列表CSV生成
+ */
+@Entity(tableName = "gazetteer_city",
+        indices = {
+                @Index(value = "locationId", unique = true),
+                @Index(value = "gridCell")
+        })
+public class GazetteerCity {
+
+    @PrimaryKey
+    public long id;            // 同时作为全文索引的docid
+
+    @NonNull
+    public String locationId = "";
+    public String name;        // 中文名
+    public String nameEn;      // 英文名
+    public String adm1;        // 一级行政区（省）
+    public String adm2;        // 二级行政区（市）
+    public String latitude;
+    public String longitude;
+    public int gridCell;       // 所在网格编号，见GeoGrid
+
+    /** 与查询点的距离（千米），只在查找最近城市时填写 */
+    @Ignore
+    public double distanceKm;
+
+    /**
+     * 转换为GeoAPI的搜索结果格式，与网络搜索结果共用列表显示和添加逻辑
+     */
+    public GeoCityResponse.Location toLocation() {
+        GeoCityResponse.Location location = new GeoCityResponse.Location();
+        location.id = locationId;
+        location.name = name;
+        location.adm1 = adm1;
+        location.adm2 = adm2;
+        location.lat = latitude;
+        location.lon = longitude;
+        return location;
+    }
+}
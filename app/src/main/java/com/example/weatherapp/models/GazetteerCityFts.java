@@ -0,0 +1,18 @@
+package com.example.weatherapp.models;
+
+import androidx.room.Entity;
+import androidx.room.Fts4;
+
+/**
+ * 预打包城市库的全文索引（外部内容表为gazetteer_city）
+ * 按中文名、英文名、省、市做前缀匹配
+ */
+@Fts4(contentEntity = GazetteerCity.class)
+@Entity(tableName = "gazetteer_city_fts")
+public class GazetteerCityFts {
+
+    public String name;
+    public String nameEn;
+    public String adm1;
+    public String adm2;
+}
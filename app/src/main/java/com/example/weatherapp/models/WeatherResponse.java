@@ -7,6 +7,10 @@ public class WeatherResponse {
     @SerializedName("code")
     private String code;
 
+    // 数据的最近更新时间（API返回）
+    @SerializedName("updateTime")
+    private String updateTime;
+
     @SerializedName("now")
     private Now now;
 
@@ -28,6 +32,14 @@ public class WeatherResponse {
         this.code = code;
     }
 
+    public String getUpdateTime() {
+        return updateTime;
+    }
+
+    public void setUpdateTime(String updateTime) {
+        this.updateTime = updateTime;
+    }
+
     public Now getNow() {
         return now;
     }
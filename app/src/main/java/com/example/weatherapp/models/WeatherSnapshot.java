@@ -0,0 +1,44 @@
+package com.example.weatherapp.models;
+
+import androidx.annotation.NonNull;
+import androidx.room.Entity;
+import androidx.room.Ignore;
+import androidx.room.Index;
+
+/**
+ * 天气数据快照
+ * 每个城市的每个数据部分（实时、逐日、逐小时、空气质量等）一行，保存最近一次成功获取的数据，
+ * 用于启动时立即显示和离线查看
+ */
+@Entity(tableName = "weather_snapshot",
+        primaryKeys = {"locationId", "section"},
+        indices = {
+                @Index(value = "fetchTime")
+        })
+public class WeatherSnapshot {
+
+    @NonNull
+    public String locationId = "";
+    @NonNull
+    public String section = "";  // WeatherBundle.Section的名称
+
+    public String payload;       // 该部分数据的JSON
+    public long fetchTime;       // 从服务器收到数据的时间（毫秒时间戳）
+    public String updateTime;    // API返回的数据更新时间，可能为空
+
+    /**
+     * Room使用的构造函数（无参构造函数）
+     */
+    public WeatherSnapshot() {
+    }
+
+    @Ignore
+    public WeatherSnapshot(@NonNull String locationId, @NonNull String section, String payload,
+                           long fetchTime, String updateTime) {
+        this.locationId = locationId;
+        this.section = section;
+        this.payload = payload;
+        this.fetchTime = fetchTime;
+        this.updateTime = updateTime;
+    }
+}
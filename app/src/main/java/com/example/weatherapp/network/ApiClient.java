@@ -1,9 +1,21 @@
 package com.example.weatherapp.network;
 
+import android.content.Context;
+import android.content.pm.ApplicationInfo;
 import android.util.Log;
+
+import com.example.weatherapp.network.json.StreamingConverterFactory;
 import com.example.weatherapp.utils.Constants;
+
+import java.io.File;
+import java.io.IOException;
+
+import okhttp3.Cache;
+import okhttp3.Dispatcher;
+import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
-import okhttp3.logging.HttpLoggingInterceptor;
+import okhttp3.Request;
+import okhttp3.Response;
 import retrofit2.Retrofit;
 import retrofit2.converter.gson.GsonConverterFactory;
 
@@ -13,26 +25,97 @@ import retrofit2.converter.gson.GsonConverterFactory;
  */
 public class ApiClient {
 
+    private static final String TAG = "ApiClient";
+    private static final long HTTP_CACHE_SIZE = 10L * 1024 * 1024; // 10MB
+
+    /** Dispatcher的每主机上限，实际并发由RequestScheduler控制 */
+    private static final int DISPATCHER_MAX_REQUESTS_PER_HOST = 16;
+
+    private static final CachingDns dns = new CachingDns();
+
+    private static Context appContext;
+    private static OkHttpClient okHttpClient;
     private static Retrofit retrofit;
 
-    public static Retrofit getClient() {
+    /**
+     * 初始化（在Application中调用），提供磁盘缓存所需的Context，并按包类型设置日志级别
+     */
+    public static void init(Context context) {
+        appContext = context.getApplicationContext();
+        boolean debuggable = (appContext.getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0;
+        HttpLogging.setTier(HttpLogging.defaultTier(debuggable));
+    }
+
+    public static synchronized Retrofit getClient() {
         if (retrofit == null) {
-            HttpLoggingInterceptor loggingInterceptor = new HttpLoggingInterceptor(message -> {
-                Log.d("API_REQUEST", message);
-            });
-            loggingInterceptor.setLevel(HttpLoggingInterceptor.Level.BODY);
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(DISPATCHER_MAX_REQUESTS_PER_HOST);
 
-            OkHttpClient client = new OkHttpClient.Builder()
-                    .addInterceptor(loggingInterceptor)
-                    .build();
+            OkHttpClient.Builder builder = new OkHttpClient.Builder()
+                    .dispatcher(dispatcher)
+                    .addInterceptor(ResponseCachePolicy.statsInterceptor())
+                    // 瞬时错误退避重试
+                    .addInterceptor(new ResilienceInterceptor())
+                    .addInterceptor(HttpLogging.interceptor())
+                    // 持续失败的端点熔断；在缓存之后，熔断时有效的缓存响应照常返回
+                    .addNetworkInterceptor(ResilienceInterceptor.circuitBreaker())
+                    .addNetworkInterceptor(ResponseCachePolicy.networkInterceptor())
+                    .addNetworkInterceptor(TrafficCounter.networkInterceptor())
+                    // 按端点记录DNS/建连/TLS/首字节耗时和连接复用率
+                    .eventListenerFactory(NetworkMetrics.factory())
+                    .dns(dns);
 
+            // 按端点策略缓存响应，有效期内的刷新不再发起网络请求
+            if (appContext != null) {
+                builder.cache(new Cache(new File(appContext.getCacheDir(), "http_cache"), HTTP_CACHE_SIZE));
+            }
+
+            okHttpClient = builder.build();
             retrofit = new Retrofit.Builder()
                     .baseUrl(Constants.BASE_URL)
-                    .client(client)
+                    .client(okHttpClient)
+                    // 按优先级排队，首屏数据先发出（需在合并之前注册，只调度合并后真正发出的请求）
+                    .addCallAdapterFactory(new PriorityCallAdapterFactory(RequestScheduler.getInstance()))
+                    // 合并同一时刻对同一端点、同一参数的重复请求
+                    .addCallAdapterFactory(new CoalescingCallAdapterFactory())
+                    // 大响应的模型使用流式解析，其余类型交给Gson
+                    .addConverterFactory(StreamingConverterFactory.create())
                     .addConverterFactory(GsonConverterFactory.create())
                     .build();
         }
         return retrofit;
     }
-}
 
+    /**
+     * 设置每个主机同时进行的请求数（不超过Dispatcher的上限）
+     */
+    public static void setMaxRequestsPerHost(int max) {
+        RequestScheduler.getInstance().setMaxRequestsPerHost(Math.min(max, DISPATCHER_MAX_REQUESTS_PER_HOST));
+    }
+
+    private static OkHttpClient getClientInternal() {
+        getClient();
+        return okHttpClient;
+    }
+
+    /**
+     * 预热连接（在Application中调用）
+     * 在后台线程构建客户端、解析API主机并用HEAD请求建立连接，
+     * 连接留在连接池中，首个天气请求可直接复用，不再承担DNS和TLS握手的耗时
+     */
+    public static void prewarm() {
+        Thread thread = new Thread(() -> {
+            OkHttpClient client = getClientInternal();
+            HttpUrl baseUrl = HttpUrl.get(Constants.BASE_URL);
+            dns.prefetch(baseUrl.host());
+            Request request = new Request.Builder().url(baseUrl).head().build();
+            try (Response response = client.newCall(request).execute()) {
+                Log.d(TAG, "连接预热完成: " + response.protocol());
+            } catch (IOException e) {
+                Log.w(TAG, "连接预热失败: " + e.getMessage());
+            }
+        }, "api-prewarm");
+        thread.setPriority(Thread.NORM_PRIORITY - 1);
+        thread.start();
+    }
+}
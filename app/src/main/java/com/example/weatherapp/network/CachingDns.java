@@ -0,0 +1,114 @@
+package com.example.weatherapp.network;
+
+import android.util.Log;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Dns;
+
+/**
+ * 进程内DNS缓存
+ * 解析结果在TTL内直接复用；过期但仍在可用期内时先返回旧结果，同时在后台刷新（serve-stale）；
+ * 系统解析失败时，只要有旧结果就继续使用，避免网络抖动时整个刷新失败
+ */
+public class CachingDns implements Dns {
+
+    private static final String TAG = "CachingDns";
+
+    private static final long TTL_MS = TimeUnit.MINUTES.toMillis(5);
+    private static final long MAX_STALE_MS = TimeUnit.HOURS.toMillis(24);
+
+    private static final class Entry {
+        final List<InetAddress> addresses;
+        final long resolvedAt;
+
+        Entry(List<InetAddress> addresses, long resolvedAt) {
+            this.addresses = addresses;
+            this.resolvedAt = resolvedAt;
+        }
+    }
+
+    private final Dns delegate;
+    private final Map<String, Entry> cache = new ConcurrentHashMap<>();
+    private final Map<String, Boolean> refreshing = new ConcurrentHashMap<>();
+    private final ExecutorService refreshExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "dns-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    public CachingDns() {
+        this(Dns.SYSTEM);
+    }
+
+    CachingDns(Dns delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+        Entry entry = cache.get(hostname);
+        long now = System.currentTimeMillis();
+        if (entry != null) {
+            long age = now - entry.resolvedAt;
+            if (age < TTL_MS) {
+                return entry.addresses;
+            }
+            if (age < MAX_STALE_MS) {
+                refreshAsync(hostname);
+                return entry.addresses;
+            }
+        }
+        try {
+            return resolve(hostname);
+        } catch (UnknownHostException e) {
+            if (entry != null) {
+                Log.w(TAG, "解析失败，使用过期结果: " + hostname);
+                return entry.addresses;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * 预先解析，用于启动时预热
+     */
+    public void prefetch(String hostname) {
+        try {
+            lookup(hostname);
+        } catch (UnknownHostException e) {
+            Log.w(TAG, "预解析失败: " + hostname);
+        }
+    }
+
+    private List<InetAddress> resolve(String hostname) throws UnknownHostException {
+        List<InetAddress> addresses = delegate.lookup(hostname);
+        cache.put(hostname, new Entry(addresses, System.currentTimeMillis()));
+        return addresses;
+    }
+
+    /**
+     * 后台刷新，同一主机同时只刷新一次
+     */
+    private void refreshAsync(String hostname) {
+        if (refreshing.putIfAbsent(hostname, Boolean.TRUE) != null) {
+            return;
+        }
+        refreshExecutor.execute(() -> {
+            try {
+                resolve(hostname);
+            } catch (UnknownHostException e) {
+                Log.w(TAG, "后台刷新失败: " + hostname);
+            } finally {
+                refreshing.remove(hostname);
+            }
+        });
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.weatherapp.network;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 请求优先级注解，标注在WeatherService的方法上
+ * 首屏可见的数据（实时、逐日、逐小时）使用HIGH，其余使用LOW，未标注的为NORMAL
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CallPriority {
+
+    Level value();
+
+    /**
+     * 优先级，按声明顺序从高到低
+     */
+    enum Level {
+        HIGH, NORMAL, LOW
+    }
+}
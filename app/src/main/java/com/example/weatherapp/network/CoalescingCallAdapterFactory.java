@@ -0,0 +1,223 @@
+package com.example.weatherapp.network;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * 请求合并（single-flight）
+ * 同一端点、同一参数的请求在前一个请求未完成时不会重复发出，
+ * 而是等待正在进行的请求，并共享同一个结果
+ */
+public class CoalescingCallAdapterFactory extends CallAdapter.Factory {
+
+    private static final AtomicLong issuedCount = new AtomicLong();
+    private static final AtomicLong savedCount = new AtomicLong();
+
+    private final Object lock = new Object();
+    private final Map<String, InFlight<?>> inFlight = new HashMap<>();
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Object> delegate =
+                (CallAdapter<Object, Object>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Object, Object>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Object adapt(Call<Object> call) {
+                return delegate.adapt(new CoalescedCall<>(call));
+            }
+        };
+    }
+
+    /**
+     * 实际发出的请求数
+     */
+    public static long getIssuedCount() {
+        return issuedCount.get();
+    }
+
+    /**
+     * 因合并而节省的请求数
+     */
+    public static long getSavedCount() {
+        return savedCount.get();
+    }
+
+    public static void resetCounts() {
+        issuedCount.set(0);
+        savedCount.set(0);
+    }
+
+    private static String keyOf(Request request) {
+        return request.method() + " " + request.url();
+    }
+
+    /**
+     * 正在进行的请求，结果分发给所有等待者
+     */
+    private final class InFlight<T> implements Callback<T> {
+        final String key;
+        final Call<T> call;
+        final List<CoalescedCall<T>> waiters = new ArrayList<>();
+
+        InFlight(String key, Call<T> call) {
+            this.key = key;
+            this.call = call;
+        }
+
+        @Override
+        public void onResponse(Call<T> c, Response<T> response) {
+            for (CoalescedCall<T> waiter : finish()) {
+                waiter.callback.onResponse(waiter, response);
+            }
+        }
+
+        @Override
+        public void onFailure(Call<T> c, Throwable t) {
+            for (CoalescedCall<T> waiter : finish()) {
+                waiter.callback.onFailure(waiter, t);
+            }
+        }
+
+        private List<CoalescedCall<T>> finish() {
+            synchronized (lock) {
+                if (inFlight.get(key) == this) {
+                    inFlight.remove(key);
+                }
+                // 清空后再取消的等待者不会重复收到回调
+                List<CoalescedCall<T>> result = new ArrayList<>(waiters);
+                waiters.clear();
+                return result;
+            }
+        }
+    }
+
+    /**
+     * 包装后的Call：enqueue时加入同key的进行中请求，没有则自己发起
+     */
+    private final class CoalescedCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private Callback<T> callback;
+        private InFlight<T> joined;
+        private boolean executed;
+        private volatile boolean canceled;
+
+        CoalescedCall(Call<T> delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+            }
+            this.callback = callback;
+
+            String key = keyOf(delegate.request());
+            boolean leader;
+            synchronized (lock) {
+                @SuppressWarnings("unchecked")
+                InFlight<T> group = (InFlight<T>) inFlight.get(key);
+                leader = group == null;
+                if (leader) {
+                    group = new InFlight<>(key, delegate);
+                    inFlight.put(key, group);
+                }
+                group.waiters.add(this);
+                joined = group;
+            }
+
+            if (leader) {
+                issuedCount.incrementAndGet();
+                delegate.enqueue(joined);
+            } else {
+                savedCount.incrementAndGet();
+            }
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+            }
+            issuedCount.incrementAndGet();
+            return delegate.execute();
+        }
+
+        @Override
+        public synchronized boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            InFlight<T> group = joined;
+            if (group == null) {
+                delegate.cancel();
+                return;
+            }
+            // 只有最后一个等待者取消时才真正取消底层请求
+            boolean removed;
+            boolean cancelUnderlying;
+            synchronized (lock) {
+                removed = group.waiters.remove(this);
+                cancelUnderlying = removed && group.waiters.isEmpty();
+                if (cancelUnderlying && inFlight.get(group.key) == group) {
+                    inFlight.remove(group.key);
+                }
+            }
+            // 已离开等待列表，底层请求的结果不会再分发给它，和Retrofit一样以"Canceled"失败回调
+            if (removed) {
+                callback.onFailure(this, new IOException("Canceled"));
+            }
+            if (cancelUnderlying) {
+                group.call.cancel();
+            }
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new CoalescedCall<>(delegate.clone());
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+}
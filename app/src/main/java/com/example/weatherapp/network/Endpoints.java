@@ -0,0 +1,47 @@
+package com.example.weatherapp.network;
+
+import java.util.List;
+
+import okhttp3.HttpUrl;
+
+/**
+ * API端点工具类
+ * 将请求URL归一化为端点名称（去掉路径中的经纬度参数），用于按端点统计和配置策略
+ */
+public class Endpoints {
+
+    /**
+     * 获取URL对应的端点名称
+     * 例如 "airquality/v1/current/39.90/116.40" -> "airquality/v1/current"
+     */
+    public static String of(HttpUrl url) {
+        List<String> segments = url.pathSegments();
+        StringBuilder endpoint = new StringBuilder();
+        for (String segment : segments) {
+            if (segment.isEmpty() || isCoordinate(segment)) {
+                continue;
+            }
+            if (endpoint.length() > 0) {
+                endpoint.append('/');
+            }
+            endpoint.append(segment);
+        }
+        return endpoint.toString();
+    }
+
+    /**
+     * 判断路径段是否为经纬度数值
+     */
+    private static boolean isCoordinate(String segment) {
+        boolean hasDigit = false;
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c >= '0' && c <= '9') {
+                hasDigit = true;
+            } else if (c != '.' && c != '-') {
+                return false;
+            }
+        }
+        return hasDigit;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.weatherapp.network;
+
+import android.util.Log;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.logging.HttpLoggingInterceptor;
+
+/**
+ * HTTP日志分级
+ * Release默认关闭日志；Debug默认只对部分请求打印完整响应体，其余只打印请求头，
+ * 避免每次请求都把大响应体复制成字符串写入Logcat
+ */
+public class HttpLogging {
+
+    private static final String TAG = "API_REQUEST";
+
+    /** 抽样打印响应体时，每多少个请求打印一次 */
+    private static final int BODY_SAMPLE_RATE = 10;
+
+    /**
+     * 日志级别
+     */
+    public enum Tier {
+        OFF,           // 不打印
+        HEADERS,       // 只打印请求行和请求头/响应头
+        SAMPLED_BODY,  // 每BODY_SAMPLE_RATE个请求打印一次完整响应体，其余同HEADERS
+        BODY           // 全部打印完整响应体
+    }
+
+    private static volatile Tier tier = Tier.OFF;
+    private static final AtomicLong requestCounter = new AtomicLong();
+
+    /**
+     * 根据是否为可调试包获取默认级别
+     */
+    public static Tier defaultTier(boolean debuggable) {
+        return debuggable ? Tier.SAMPLED_BODY : Tier.OFF;
+    }
+
+    public static Tier getTier() {
+        return tier;
+    }
+
+    /**
+     * 设置日志级别，运行时修改立即生效
+     */
+    public static void setTier(Tier newTier) {
+        tier = newTier != null ? newTier : Tier.OFF;
+    }
+
+    /**
+     * 按当前级别打印日志的拦截器
+     */
+    public static Interceptor interceptor() {
+        HttpLoggingInterceptor.Logger logger = message -> Log.d(TAG, message);
+        HttpLoggingInterceptor headersLogger = new HttpLoggingInterceptor(logger);
+        headersLogger.setLevel(HttpLoggingInterceptor.Level.HEADERS);
+        HttpLoggingInterceptor bodyLogger = new HttpLoggingInterceptor(logger);
+        bodyLogger.setLevel(HttpLoggingInterceptor.Level.BODY);
+
+        return chain -> {
+            switch (tier) {
+                case HEADERS:
+                    return headersLogger.intercept(chain);
+                case SAMPLED_BODY:
+                    if (requestCounter.incrementAndGet() % BODY_SAMPLE_RATE == 1) {
+                        return bodyLogger.intercept(chain);
+                    }
+                    return headersLogger.intercept(chain);
+                case BODY:
+                    return bodyLogger.intercept(chain);
+                case OFF:
+                default:
+                    return chain.proceed(chain.request());
+            }
+        };
+    }
+}
@@ -0,0 +1,234 @@
+package com.example.weatherapp.network;
+
+import com.example.weatherapp.utils.Histogram;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Protocol;
+
+/**
+ * 网络阶段耗时统计
+ * 通过OkHttp的EventListener按端点记录DNS、建连、TLS握手、首字节时间（TTFB）和整个调用的耗时，
+ * 以及连接复用率。数据只保存在内存的直方图中，可在调试页查看或导出到文件
+ */
+public class NetworkMetrics {
+
+    /**
+     * 统计的阶段
+     */
+    public enum Phase {
+        DNS, CONNECT, TLS, TTFB, TOTAL
+    }
+
+    /**
+     * 直方图桶上界（毫秒），最后一个桶收集所有更大的值
+     */
+    private static final long[] BUCKET_BOUNDS = {10, 25, 50, 100, 250, 500, 1000, 2500, 5000};
+
+    /**
+     * 单个端点的统计
+     */
+    public static final class EndpointMetrics {
+        private final Histogram[] phases = new Histogram[Phase.values().length];
+        final AtomicLong calls = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong connectionsAcquired = new AtomicLong();
+        final AtomicLong connectionsReused = new AtomicLong();
+
+        EndpointMetrics() {
+            for (int i = 0; i < phases.length; i++) {
+                phases[i] = new Histogram(BUCKET_BOUNDS);
+            }
+        }
+
+        public Histogram get(Phase phase) {
+            return phases[phase.ordinal()];
+        }
+
+        public long getCalls() {
+            return calls.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        /**
+         * 连接复用率：获取连接时未新建连接的比例
+         */
+        public float getReuseRate() {
+            long acquired = connectionsAcquired.get();
+            return acquired == 0 ? 0f : (float) connectionsReused.get() / acquired;
+        }
+    }
+
+    private static final Map<String, EndpointMetrics> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * 安装到OkHttpClient的工厂，每个Call创建一个监听器
+     */
+    public static EventListener.Factory factory() {
+        return CallTimer::new;
+    }
+
+    private static EndpointMetrics metricsOf(String endpoint) {
+        EndpointMetrics metrics = endpoints.get(endpoint);
+        if (metrics == null) {
+            endpoints.putIfAbsent(endpoint, new EndpointMetrics());
+            metrics = endpoints.get(endpoint);
+        }
+        return metrics;
+    }
+
+    /**
+     * 获取所有端点的统计（按端点名排序）
+     */
+    public static Map<String, EndpointMetrics> getSnapshot() {
+        return new TreeMap<>(endpoints);
+    }
+
+    /**
+     * 导出为文本：每个端点一行汇总，加每个阶段一行的分位数
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("endpoint\tphase\tcount\tavgMs\tp50Ms\tp90Ms\tp99Ms\tmaxMs\n");
+        for (Map.Entry<String, EndpointMetrics> entry : getSnapshot().entrySet()) {
+            EndpointMetrics m = entry.getValue();
+            for (Phase phase : Phase.values()) {
+                Histogram h = m.get(phase);
+                if (h.getCount() == 0) {
+                    continue;
+                }
+                sb.append(entry.getKey()).append('\t')
+                        .append(phase.name().toLowerCase()).append('\t')
+                        .append(h.getCount()).append('\t')
+                        .append(h.getAverageMillis()).append('\t')
+                        .append(h.percentile(0.5)).append('\t')
+                        .append(h.percentile(0.9)).append('\t')
+                        .append(h.percentile(0.99)).append('\t')
+                        .append(h.getMaxMillis()).append('\n');
+            }
+        }
+        sb.append("\nendpoint\tcalls\tfailures\tconnections\treuseRate\n");
+        for (Map.Entry<String, EndpointMetrics> entry : getSnapshot().entrySet()) {
+            EndpointMetrics m = entry.getValue();
+            sb.append(entry.getKey()).append('\t')
+                    .append(m.getCalls()).append('\t')
+                    .append(m.getFailures()).append('\t')
+                    .append(m.connectionsAcquired.get()).append('\t')
+                    .append(String.format("%.2f", m.getReuseRate())).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * 单个Call的计时器
+     * 缓存命中的调用不会走连接相关的回调，只记录TOTAL
+     */
+    private static final class CallTimer extends EventListener {
+        private final EndpointMetrics metrics;
+        private long callStart;
+        private long dnsStart;
+        private long connectStart;
+        private long secureConnectStart;
+        private long requestStart;
+        private boolean connected;
+
+        CallTimer(Call call) {
+            this.metrics = metricsOf(Endpoints.of(call.request().url()));
+        }
+
+        @Override
+        public void callStart(Call call) {
+            callStart = System.nanoTime();
+            metrics.calls.incrementAndGet();
+        }
+
+        @Override
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        @Override
+        public void dnsEnd(Call call, String domainName, List<InetAddress> inetAddressList) {
+            record(Phase.DNS, dnsStart);
+        }
+
+        @Override
+        public void connectStart(Call call, InetSocketAddress inetSocketAddress, Proxy proxy) {
+            connectStart = System.nanoTime();
+            connected = true;
+        }
+
+        @Override
+        public void secureConnectStart(Call call) {
+            secureConnectStart = System.nanoTime();
+        }
+
+        @Override
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            record(Phase.TLS, secureConnectStart);
+        }
+
+        @Override
+        public void connectEnd(Call call, InetSocketAddress inetSocketAddress, Proxy proxy,
+                               Protocol protocol) {
+            record(Phase.CONNECT, connectStart);
+        }
+
+        @Override
+        public void connectionAcquired(Call call, Connection connection) {
+            metrics.connectionsAcquired.incrementAndGet();
+            if (!connected) {
+                metrics.connectionsReused.incrementAndGet();
+            }
+            // 重试或重定向可能再次获取连接，之后的获取按复用判断
+            connected = false;
+        }
+
+        @Override
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+        }
+
+        @Override
+        public void responseHeadersStart(Call call) {
+            if (requestStart != 0) {
+                record(Phase.TTFB, requestStart);
+                requestStart = 0;
+            }
+        }
+
+        @Override
+        public void callEnd(Call call) {
+            record(Phase.TOTAL, callStart);
+        }
+
+        @Override
+        public void callFailed(Call call, IOException ioe) {
+            metrics.failures.incrementAndGet();
+            record(Phase.TOTAL, callStart);
+        }
+
+        private void record(Phase phase, long startNanos) {
+            metrics.get(phase).record((System.nanoTime() - startNanos) / 1_000_000);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.weatherapp.network;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+
+import okhttp3.Request;
+import okio.Timeout;
+import retrofit2.Call;
+import retrofit2.CallAdapter;
+import retrofit2.Callback;
+import retrofit2.Response;
+import retrofit2.Retrofit;
+
+/**
+ * 按@CallPriority调度异步请求
+ * 需要在CoalescingCallAdapterFactory之前注册，使合并后真正发出的请求才参与排队
+ */
+public class PriorityCallAdapterFactory extends CallAdapter.Factory {
+
+    private final RequestScheduler scheduler;
+
+    public PriorityCallAdapterFactory(RequestScheduler scheduler) {
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public CallAdapter<?, ?> get(Type returnType, Annotation[] annotations, Retrofit retrofit) {
+        if (getRawType(returnType) != Call.class) {
+            return null;
+        }
+        CallPriority.Level priority = CallPriority.Level.NORMAL;
+        for (Annotation annotation : annotations) {
+            if (annotation instanceof CallPriority) {
+                priority = ((CallPriority) annotation).value();
+            }
+        }
+        CallPriority.Level level = priority;
+        @SuppressWarnings("unchecked")
+        CallAdapter<Object, Object> delegate =
+                (CallAdapter<Object, Object>) retrofit.nextCallAdapter(this, returnType, annotations);
+        return new CallAdapter<Object, Object>() {
+            @Override
+            public Type responseType() {
+                return delegate.responseType();
+            }
+
+            @Override
+            public Object adapt(Call<Object> call) {
+                return delegate.adapt(new PriorityCall<>(call, level));
+            }
+        };
+    }
+
+    /**
+     * 包装后的Call：enqueue时交给RequestScheduler，获得名额后才真正发出
+     */
+    private final class PriorityCall<T> implements Call<T> {
+        private final Call<T> delegate;
+        private final CallPriority.Level priority;
+        private final String host;
+        private Callback<T> callback;
+        private Object queueHandle;
+        private boolean executed;
+        private volatile boolean canceled;
+
+        PriorityCall(Call<T> delegate, CallPriority.Level priority) {
+            this.delegate = delegate;
+            this.priority = priority;
+            this.host = delegate.request().url().host();
+        }
+
+        @Override
+        public void enqueue(Callback<T> callback) {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+            }
+            this.callback = callback;
+            Object handle = scheduler.submit(host, priority, this::start);
+            synchronized (this) {
+                queueHandle = handle;
+            }
+        }
+
+        private void start() {
+            if (canceled) {
+                scheduler.release(host);
+                callback.onFailure(this, new IOException("Canceled"));
+                return;
+            }
+            delegate.enqueue(new Callback<T>() {
+                @Override
+                public void onResponse(Call<T> call, Response<T> response) {
+                    scheduler.release(host);
+                    callback.onResponse(PriorityCall.this, response);
+                }
+
+                @Override
+                public void onFailure(Call<T> call, Throwable t) {
+                    scheduler.release(host);
+                    callback.onFailure(PriorityCall.this, t);
+                }
+            });
+        }
+
+        @Override
+        public Response<T> execute() throws IOException {
+            synchronized (this) {
+                if (executed) throw new IllegalStateException("Already executed.");
+                executed = true;
+            }
+            // 同步请求由调用线程自己等待，不参与排队
+            return delegate.execute();
+        }
+
+        @Override
+        public synchronized boolean isExecuted() {
+            return executed;
+        }
+
+        @Override
+        public void cancel() {
+            canceled = true;
+            Object handle;
+            synchronized (this) {
+                handle = queueHandle;
+            }
+            // 还在排队时直接移出队列，与OkHttp一致地回调失败
+            if (handle != null && scheduler.remove(host, handle)) {
+                callback.onFailure(this, new IOException("Canceled"));
+                return;
+            }
+            delegate.cancel();
+        }
+
+        @Override
+        public boolean isCanceled() {
+            return canceled;
+        }
+
+        @Override
+        public Call<T> clone() {
+            return new PriorityCall<>(delegate.clone(), priority);
+        }
+
+        @Override
+        public Request request() {
+            return delegate.request();
+        }
+
+        @Override
+        public Timeout timeout() {
+            return delegate.timeout();
+        }
+    }
+}
@@ -0,0 +1,231 @@
+package com.example.weatherapp.network;
+
+import android.os.SystemClock;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 按优先级调度请求
+ * 每个主机同时进行的请求数有上限，超出的请求排队，空出名额时先放行优先级高的（同优先级按先后顺序）；
+ * 已经发出的请求不会被打断。OkHttp Dispatcher的每主机上限需要不低于这里的上限
+ */
+public class RequestScheduler {
+
+    public static final int DEFAULT_MAX_REQUESTS_PER_HOST = 5;
+
+    /**
+     * 排队中的请求
+     */
+    interface Task {
+        /** 获得名额后调用，完成时必须调用release */
+        void start();
+    }
+
+    private static final class Entry implements Comparable<Entry> {
+        final Task task;
+        final CallPriority.Level priority;
+        final long sequence;
+        final long enqueuedAt = SystemClock.elapsedRealtime();
+
+        Entry(Task task, CallPriority.Level priority, long sequence) {
+            this.task = task;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Entry other) {
+            int c = priority.compareTo(other.priority);
+            return c != 0 ? c : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * 单个优先级的排队耗时统计
+     */
+    public static final class QueueStats {
+        final AtomicLong started = new AtomicLong();
+        final AtomicLong queued = new AtomicLong();
+        final AtomicLong totalDelayMillis = new AtomicLong();
+        final AtomicLong maxDelayMillis = new AtomicLong();
+
+        void record(long delay) {
+            started.incrementAndGet();
+            if (delay > 0) {
+                queued.incrementAndGet();
+            }
+            totalDelayMillis.addAndGet(delay);
+            long max;
+            do {
+                max = maxDelayMillis.get();
+            } while (delay > max && !maxDelayMillis.compareAndSet(max, delay));
+        }
+
+        public long getStarted() {
+            return started.get();
+        }
+
+        /**
+         * 需要排队（未能立即发出）的请求数
+         */
+        public long getQueued() {
+            return queued.get();
+        }
+
+        public long getAverageDelayMillis() {
+            long count = started.get();
+            return count == 0 ? 0 : totalDelayMillis.get() / count;
+        }
+
+        public long getMaxDelayMillis() {
+            return maxDelayMillis.get();
+        }
+    }
+
+    private static final RequestScheduler instance = new RequestScheduler();
+
+    private final Map<String, PriorityQueue<Entry>> queues = new HashMap<>();
+    private final Map<String, Integer> running = new HashMap<>();
+    private final Map<CallPriority.Level, QueueStats> stats = new EnumMap<>(CallPriority.Level.class);
+    private int maxRequestsPerHost = DEFAULT_MAX_REQUESTS_PER_HOST;
+    private long sequence;
+
+    private RequestScheduler() {
+        for (CallPriority.Level level : CallPriority.Level.values()) {
+            stats.put(level, new QueueStats());
+        }
+    }
+
+    public static RequestScheduler getInstance() {
+        return instance;
+    }
+
+    /**
+     * 设置每个主机同时进行的请求数上限
+     */
+    public void setMaxRequestsPerHost(int max) {
+        if (max < 1) {
+            throw new IllegalArgumentException("max < 1: " + max);
+        }
+        synchronized (this) {
+            maxRequestsPerHost = max;
+        }
+        promoteAll();
+    }
+
+    public synchronized int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    /**
+     * 提交请求，有名额时立即开始，否则按优先级排队
+     * @return 排队时返回的句柄可用于移除，立即开始时为null
+     */
+    Object submit(String host, CallPriority.Level priority, Task task) {
+        Entry entry;
+        synchronized (this) {
+            entry = new Entry(task, priority, sequence++);
+            if (runningCount(host) >= maxRequestsPerHost) {
+                queueOf(host).add(entry);
+                return entry;
+            }
+            running.put(host, runningCount(host) + 1);
+        }
+        begin(entry);
+        return null;
+    }
+
+    /**
+     * 移除尚未开始的请求（取消时调用）
+     * @return 是否仍在队列中
+     */
+    synchronized boolean remove(String host, Object handle) {
+        PriorityQueue<Entry> queue = queues.get(host);
+        return queue != null && queue.remove(handle);
+    }
+
+    /**
+     * 请求完成，释放名额并放行下一个
+     */
+    void release(String host) {
+        synchronized (this) {
+            int count = runningCount(host) - 1;
+            if (count <= 0) {
+                running.remove(host);
+            } else {
+                running.put(host, count);
+            }
+        }
+        promote(host);
+    }
+
+    private void promoteAll() {
+        String[] hosts;
+        synchronized (this) {
+            hosts = queues.keySet().toArray(new String[0]);
+        }
+        for (String host : hosts) {
+            promote(host);
+        }
+    }
+
+    private void promote(String host) {
+        while (true) {
+            Entry next;
+            synchronized (this) {
+                PriorityQueue<Entry> queue = queues.get(host);
+                if (queue == null || queue.isEmpty() || runningCount(host) >= maxRequestsPerHost) {
+                    return;
+                }
+                next = queue.poll();
+                running.put(host, runningCount(host) + 1);
+            }
+            begin(next);
+        }
+    }
+
+    private void begin(Entry entry) {
+        stats.get(entry.priority).record(SystemClock.elapsedRealtime() - entry.enqueuedAt);
+        entry.task.start();
+    }
+
+    private int runningCount(String host) {
+        Integer count = running.get(host);
+        return count != null ? count : 0;
+    }
+
+    private PriorityQueue<Entry> queueOf(String host) {
+        PriorityQueue<Entry> queue = queues.get(host);
+        if (queue == null) {
+            queue = new PriorityQueue<>();
+            queues.put(host, queue);
+        }
+        return queue;
+    }
+
+    public QueueStats getStats(CallPriority.Level priority) {
+        return stats.get(priority);
+    }
+
+    /**
+     * 导出为文本，每行一个优先级
+     */
+    public String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("maxRequestsPerHost=").append(getMaxRequestsPerHost()).append('\n');
+        sb.append("priority\tstarted\tqueued\tavgDelayMs\tmaxDelayMs\n");
+        for (CallPriority.Level level : CallPriority.Level.values()) {
+            QueueStats s = stats.get(level);
+            sb.append(level).append('\t')
+                    .append(s.getStarted()).append('\t')
+                    .append(s.getQueued()).append('\t')
+                    .append(s.getAverageDelayMillis()).append('\t')
+                    .append(s.getMaxDelayMillis()).append('\n');
+        }
+        return sb.toString();
+    }
+}
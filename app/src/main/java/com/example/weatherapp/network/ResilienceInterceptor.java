@@ -0,0 +1,270 @@
+package com.example.weatherapp.network;
+
+import android.util.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * 重试与熔断拦截器
+ * 对瞬时错误（IO异常、5xx、429）做有上限的指数退避重试（带随机抖动），作为应用拦截器安装；
+ * 每个端点一个熔断器，连续失败达到阈值后在冷却期内直接失败，不再发起注定失败的请求，
+ * 冷却结束后放行一个试探请求，成功则恢复，失败则加倍冷却时间
+ * 熔断器由circuitBreaker()作为网络拦截器安装，位于HTTP缓存之后：有效期内的缓存响应在熔断时照常返回，
+ * 每次实际发出的网络请求都计入熔断统计；只有瞬时错误算失败，其他4xx（参数错误、Key无效等）说明服务可达，算成功
+ */
+public class ResilienceInterceptor implements Interceptor {
+
+    private static final String TAG = "ResilienceInterceptor";
+
+    private static final int MAX_RETRIES = 2;
+    private static final long BASE_BACKOFF_MS = 300;
+    private static final long MAX_BACKOFF_MS = 2000;
+
+    private static final int FAILURE_THRESHOLD = 5;
+    private static final long BASE_COOL_DOWN_MS = TimeUnit.SECONDS.toMillis(60);
+    private static final long MAX_COOL_DOWN_MS = TimeUnit.MINUTES.toMillis(10);
+
+    /**
+     * 熔断器打开时抛出，调用方按普通网络失败处理（走降级逻辑）
+     */
+    public static final class CircuitOpenException extends IOException {
+        CircuitOpenException(String endpoint, long remainingMillis) {
+            super("circuit open for " + endpoint + ", retry in " + remainingMillis + "ms");
+        }
+    }
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * 单个端点的熔断器
+     */
+    public static final class CircuitBreaker {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private long coolDownMillis = BASE_COOL_DOWN_MS;
+        private long openedAt;
+        final AtomicLong retries = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+
+        /**
+         * 是否放行请求；冷却结束时转为半开并只放行一个试探请求
+         */
+        synchronized long tryAcquire(long now) {
+            if (state == State.CLOSED) {
+                return 0;
+            }
+            if (state == State.OPEN && now - openedAt >= coolDownMillis) {
+                state = State.HALF_OPEN;
+                return 0;
+            }
+            // OPEN冷却中，或HALF_OPEN已有试探请求在进行
+            return Math.max(1, coolDownMillis - (now - openedAt));
+        }
+
+        synchronized void onSuccess() {
+            state = State.CLOSED;
+            consecutiveFailures = 0;
+            coolDownMillis = BASE_COOL_DOWN_MS;
+        }
+
+        synchronized void onFailure(long now) {
+            consecutiveFailures++;
+            if (state == State.HALF_OPEN) {
+                coolDownMillis = Math.min(coolDownMillis * 2, MAX_COOL_DOWN_MS);
+                open(now);
+            } else if (state == State.CLOSED && consecutiveFailures >= FAILURE_THRESHOLD) {
+                open(now);
+            }
+        }
+
+        /**
+         * 试探请求被取消时交还试探机会，下一个请求继续试探
+         */
+        synchronized void onCanceled(long now) {
+            if (state == State.HALF_OPEN) {
+                state = State.OPEN;
+                openedAt = now - coolDownMillis;
+            }
+        }
+
+        private void open(long now) {
+            state = State.OPEN;
+            openedAt = now;
+        }
+
+        public synchronized State getState() {
+            return state;
+        }
+
+        public synchronized int getConsecutiveFailures() {
+            return consecutiveFailures;
+        }
+
+        public long getRetries() {
+            return retries.get();
+        }
+
+        public long getRejected() {
+            return rejected.get();
+        }
+    }
+
+    private static final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * 熔断拦截器（网络拦截器），缓存命中的请求不会经过这里
+     */
+    public static Interceptor circuitBreaker() {
+        return chain -> {
+            Request request = chain.request();
+            String endpoint = Endpoints.of(request.url());
+            CircuitBreaker breaker = breakerOf(endpoint);
+
+            long wait = breaker.tryAcquire(System.currentTimeMillis());
+            if (wait > 0) {
+                breaker.rejected.incrementAndGet();
+                throw new CircuitOpenException(endpoint, wait);
+            }
+
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) {
+                    breaker.onCanceled(System.currentTimeMillis());
+                } else {
+                    breaker.onFailure(System.currentTimeMillis());
+                }
+                throw e;
+            }
+            if (isTransient(response.code())) {
+                breaker.onFailure(System.currentTimeMillis());
+            } else {
+                breaker.onSuccess();
+            }
+            return response;
+        };
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String endpoint = Endpoints.of(request.url());
+
+        boolean retryable = "GET".equals(request.method());
+        int attempt = 0;
+        while (true) {
+            Response response = null;
+            IOException failure = null;
+            try {
+                response = chain.proceed(request);
+            } catch (CircuitOpenException e) {
+                // 熔断中重试也会被拒绝
+                throw e;
+            } catch (IOException e) {
+                if (chain.call().isCanceled()) {
+                    throw e;
+                }
+                failure = e;
+            }
+
+            boolean transientError = failure != null || isTransient(response.code());
+            if (!transientError || !retryable || attempt >= MAX_RETRIES) {
+                if (failure != null) {
+                    throw failure;
+                }
+                return response;
+            }
+
+            long delay = backoffMillis(attempt, response);
+            if (response != null) {
+                response.close();
+            }
+            attempt++;
+            breakerOf(endpoint).retries.incrementAndGet();
+            Log.d(TAG, endpoint + " 第" + attempt + "次重试，" + delay + "ms后");
+            sleep(delay);
+            if (chain.call().isCanceled()) {
+                throw new IOException("Canceled");
+            }
+        }
+    }
+
+    private static boolean isTransient(int code) {
+        return code == 429 || code >= 500;
+    }
+
+    /**
+     * 指数退避加随机抖动（在上限的一半到上限之间取值）；429带Retry-After时取两者较大值（不超过上限）
+     */
+    private static long backoffMillis(int attempt, Response response) {
+        long ceiling = Math.min(MAX_BACKOFF_MS, BASE_BACKOFF_MS << attempt);
+        long delay = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        if (response != null && response.code() == 429) {
+            String retryAfter = response.header("Retry-After");
+            if (retryAfter != null) {
+                try {
+                    delay = Math.max(delay, TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim())));
+                } catch (NumberFormatException ignored) {
+                    // HTTP日期格式的Retry-After按普通退避处理
+                }
+            }
+        }
+        return Math.min(delay, MAX_BACKOFF_MS);
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("retry interrupted");
+        }
+    }
+
+    private static CircuitBreaker breakerOf(String endpoint) {
+        CircuitBreaker breaker = breakers.get(endpoint);
+        if (breaker == null) {
+            breakers.putIfAbsent(endpoint, new CircuitBreaker());
+            breaker = breakers.get(endpoint);
+        }
+        return breaker;
+    }
+
+    /**
+     * 获取所有端点的熔断器（按端点名排序）
+     */
+    public static Map<String, CircuitBreaker> getSnapshot() {
+        return new TreeMap<>(breakers);
+    }
+
+    /**
+     * 导出为文本，每行一个端点
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("endpoint\tstate\tfailures\tretries\trejected\n");
+        for (Map.Entry<String, CircuitBreaker> entry : getSnapshot().entrySet()) {
+            CircuitBreaker b = entry.getValue();
+            sb.append(entry.getKey()).append('\t')
+                    .append(b.getState()).append('\t')
+                    .append(b.getConsecutiveFailures()).append('\t')
+                    .append(b.getRetries()).append('\t')
+                    .append(b.getRejected()).append('\n');
+        }
+        return sb.toString();
+    }
+}
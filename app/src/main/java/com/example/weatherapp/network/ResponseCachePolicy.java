@@ -0,0 +1,163 @@
+package com.example.weatherapp.network;
+
+import java.util.Calendar;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * HTTP响应缓存策略
+ * 和风天气返回的缓存头不适合客户端缓存，这里按端点重写Cache-Control，
+ * 由OkHttp的磁盘缓存在有效期内直接返回结果，并统计缓存命中情况
+ */
+public class ResponseCachePolicy {
+
+    /** 有效期为"到本地午夜"的特殊标记 */
+    private static final long UNTIL_MIDNIGHT = -1;
+
+    /** 端点前缀 -> 有效期（秒），按顺序匹配，越具体的前缀越靠前 */
+    private static final Map<String, Long> POLICIES = new LinkedHashMap<>();
+
+    static {
+        POLICIES.put("v7/weather/now", TimeUnit.MINUTES.toSeconds(10));
+        POLICIES.put("v7/weather/24h", TimeUnit.MINUTES.toSeconds(30));
+        POLICIES.put("v7/weather/", TimeUnit.HOURS.toSeconds(1));       // 3d/7d/15d
+        POLICIES.put("v7/grid-weather/", TimeUnit.HOURS.toSeconds(1));  // 15d/72h
+        POLICIES.put("v7/minutely/", TimeUnit.MINUTES.toSeconds(5));
+        POLICIES.put("v7/air/", TimeUnit.MINUTES.toSeconds(30));
+        POLICIES.put("airquality/", TimeUnit.MINUTES.toSeconds(30));
+        POLICIES.put("solarradiation/", TimeUnit.HOURS.toSeconds(1));
+        POLICIES.put("v7/astronomy/sun", UNTIL_MIDNIGHT);
+        POLICIES.put("geo/", TimeUnit.DAYS.toSeconds(1));
+    }
+
+    private static final AtomicLong hitCount = new AtomicLong();
+    private static final AtomicLong missCount = new AtomicLong();
+    private static final Map<String, AtomicLong[]> endpointCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 获取端点的缓存有效期（秒），0表示不缓存
+     */
+    static long maxAgeSeconds(String endpoint) {
+        for (Map.Entry<String, Long> entry : POLICIES.entrySet()) {
+            if (endpoint.startsWith(entry.getKey())) {
+                long maxAge = entry.getValue();
+                return maxAge == UNTIL_MIDNIGHT ? secondsUntilMidnight() : maxAge;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 距离本地午夜的秒数
+     */
+    private static long secondsUntilMidnight() {
+        Calendar midnight = Calendar.getInstance();
+        midnight.add(Calendar.DAY_OF_MONTH, 1);
+        midnight.set(Calendar.HOUR_OF_DAY, 0);
+        midnight.set(Calendar.MINUTE, 0);
+        midnight.set(Calendar.SECOND, 0);
+        midnight.set(Calendar.MILLISECOND, 0);
+        long millis = midnight.getTimeInMillis() - System.currentTimeMillis();
+        return Math.max(0, TimeUnit.MILLISECONDS.toSeconds(millis));
+    }
+
+    /**
+     * 网络拦截器：按端点重写成功响应的缓存头，使其可以被磁盘缓存
+     */
+    public static Interceptor networkInterceptor() {
+        return chain -> {
+            Request request = chain.request();
+            Response response = chain.proceed(request);
+            if (!"GET".equals(request.method()) || !response.isSuccessful()) {
+                return response;
+            }
+            long maxAge = maxAgeSeconds(Endpoints.of(request.url()));
+            if (maxAge <= 0) {
+                return response;
+            }
+            return response.newBuilder()
+                    .removeHeader("Pragma")
+                    .removeHeader("Expires")
+                    .header("Cache-Control", "public, max-age=" + maxAge)
+                    .build();
+        };
+    }
+
+    /**
+     * 应用拦截器：统计每个端点的缓存命中与未命中次数
+     * 命中指完全由缓存返回、没有网络往返；条件请求（304）算作未命中
+     * 只统计GET请求（连接预热的HEAD请求不计入）
+     */
+    public static Interceptor statsInterceptor() {
+        return chain -> {
+            Response response = chain.proceed(chain.request());
+            if (!"GET".equals(chain.request().method())) {
+                return response;
+            }
+            boolean hit = response.networkResponse() == null && response.cacheResponse() != null;
+            record(Endpoints.of(chain.request().url()), hit);
+            return response;
+        };
+    }
+
+    private static void record(String endpoint, boolean hit) {
+        AtomicLong[] counts = endpointCounts.get(endpoint);
+        if (counts == null) {
+            endpointCounts.putIfAbsent(endpoint, new AtomicLong[]{new AtomicLong(), new AtomicLong()});
+            counts = endpointCounts.get(endpoint);
+        }
+        if (hit) {
+            hitCount.incrementAndGet();
+            counts[0].incrementAndGet();
+        } else {
+            missCount.incrementAndGet();
+            counts[1].incrementAndGet();
+        }
+    }
+
+    public static long getHitCount() {
+        return hitCount.get();
+    }
+
+    public static long getMissCount() {
+        return missCount.get();
+    }
+
+    /**
+     * 缓存命中率（0~1），没有请求时返回0
+     */
+    public static float getHitRate() {
+        long hits = hitCount.get();
+        long total = hits + missCount.get();
+        return total == 0 ? 0f : (float) hits / total;
+    }
+
+    public static void resetStats() {
+        hitCount.set(0);
+        missCount.set(0);
+        endpointCounts.clear();
+    }
+
+    /**
+     * 按端点输出命中统计，格式：端点 命中/未命中
+     */
+    public static String dumpStats() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("缓存命中率: %.1f%% (%d/%d)\n",
+                getHitRate() * 100, hitCount.get(), hitCount.get() + missCount.get()));
+        for (Map.Entry<String, AtomicLong[]> entry : endpointCounts.entrySet()) {
+            sb.append(entry.getKey())
+                    .append(" hit=").append(entry.getValue()[0].get())
+                    .append(" miss=").append(entry.getValue()[1].get())
+                    .append('\n');
+        }
+        return sb.toString();
+    }
+}
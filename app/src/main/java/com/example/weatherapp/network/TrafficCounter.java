@@ -0,0 +1,187 @@
+package com.example.weatherapp.network;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * 网络流量计数器
+ * 始终开启的轻量统计：按端点记录请求数、上行/下行字节数和耗时，不缓冲、不复制响应体
+ * 作为网络拦截器安装，统计的是实际走网络的请求（缓存命中不计入），字节数为压缩后的传输大小
+ */
+public class TrafficCounter {
+
+    /**
+     * 单个端点的累计数据
+     */
+    public static final class EndpointTraffic {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final AtomicLong requestBytes = new AtomicLong();
+        final AtomicLong responseBytes = new AtomicLong();
+        final AtomicLong totalMillis = new AtomicLong();
+        final AtomicLong maxMillis = new AtomicLong();
+
+        public long getRequests() {
+            return requests.get();
+        }
+
+        public long getFailures() {
+            return failures.get();
+        }
+
+        public long getRequestBytes() {
+            return requestBytes.get();
+        }
+
+        public long getResponseBytes() {
+            return responseBytes.get();
+        }
+
+        /**
+         * 平均耗时（发出请求到收到响应头）
+         */
+        public long getAverageMillis() {
+            long count = requests.get();
+            return count == 0 ? 0 : totalMillis.get() / count;
+        }
+
+        public long getMaxMillis() {
+            return maxMillis.get();
+        }
+
+        void recordDuration(long millis) {
+            totalMillis.addAndGet(millis);
+            long max;
+            do {
+                max = maxMillis.get();
+            } while (millis > max && !maxMillis.compareAndSet(max, millis));
+        }
+    }
+
+    private static final Map<String, EndpointTraffic> endpoints = new ConcurrentHashMap<>();
+
+    /**
+     * 网络拦截器：统计字节数和耗时
+     */
+    public static Interceptor networkInterceptor() {
+        return chain -> {
+            Request request = chain.request();
+            EndpointTraffic traffic = trafficOf(Endpoints.of(request.url()));
+            traffic.requests.incrementAndGet();
+
+            long requestBytes = request.headers().byteCount();
+            if (request.body() != null && request.body().contentLength() > 0) {
+                requestBytes += request.body().contentLength();
+            }
+            traffic.requestBytes.addAndGet(requestBytes);
+
+            long start = System.nanoTime();
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                traffic.failures.incrementAndGet();
+                throw e;
+            }
+            traffic.recordDuration((System.nanoTime() - start) / 1_000_000);
+            traffic.responseBytes.addAndGet(response.headers().byteCount());
+
+            ResponseBody body = response.body();
+            if (body == null) {
+                return response;
+            }
+            return response.newBuilder()
+                    .body(new CountingResponseBody(body, traffic.responseBytes))
+                    .build();
+        };
+    }
+
+    private static EndpointTraffic trafficOf(String endpoint) {
+        EndpointTraffic traffic = endpoints.get(endpoint);
+        if (traffic == null) {
+            endpoints.putIfAbsent(endpoint, new EndpointTraffic());
+            traffic = endpoints.get(endpoint);
+        }
+        return traffic;
+    }
+
+    /**
+     * 获取所有端点的统计（按端点名排序）
+     */
+    public static Map<String, EndpointTraffic> getSnapshot() {
+        return new TreeMap<>(endpoints);
+    }
+
+    /**
+     * 导出为文本，每行一个端点
+     */
+    public static String dump() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("endpoint\trequests\tfailures\ttxBytes\trxBytes\tavgMs\tmaxMs\n");
+        for (Map.Entry<String, EndpointTraffic> entry : getSnapshot().entrySet()) {
+            EndpointTraffic t = entry.getValue();
+            sb.append(entry.getKey()).append('\t')
+                    .append(t.getRequests()).append('\t')
+                    .append(t.getFailures()).append('\t')
+                    .append(t.getRequestBytes()).append('\t')
+                    .append(t.getResponseBytes()).append('\t')
+                    .append(t.getAverageMillis()).append('\t')
+                    .append(t.getMaxMillis()).append('\n');
+        }
+        return sb.toString();
+    }
+
+    public static void reset() {
+        endpoints.clear();
+    }
+
+    /**
+     * 边读边计数的响应体，不额外缓冲
+     */
+    private static final class CountingResponseBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        CountingResponseBody(ResponseBody delegate, AtomicLong counter) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read = super.read(sink, byteCount);
+                    if (read > 0) {
+                        counter.addAndGet(read);
+                    }
+                    return read;
+                }
+            });
+        }
+
+        @Override
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        @Override
+        public long contentLength() {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
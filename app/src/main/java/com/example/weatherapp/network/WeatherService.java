@@ -14,7 +14,7 @@ import retrofit2.http.Query;
 
 /**
  * 和风天气API服务接口
- * 定义所有API请求方法
+ * 定义所有API请求方法，@CallPriority标注请求的调度优先级
  */
 public interface WeatherService {
 
@@ -28,6 +28,7 @@ public interface WeatherService {
             @Query("lang") String lang
     );
 
+    @CallPriority(CallPriority.Level.HIGH)
     @GET("v7/weather/now")
     Call<WeatherResponse> getWeatherNow(
             @Query("location") String locationId,
@@ -46,12 +47,14 @@ public interface WeatherService {
             @Query("key") String key
     );
 
+    @CallPriority(CallPriority.Level.HIGH)
     @GET("v7/weather/15d")
     Call<WeatherResponse> getWeather15d(
             @Query("location") String locationId,
             @Query("key") String key
     );
 
+    @CallPriority(CallPriority.Level.LOW)
     @GET("airquality/v1/current/{latitude}/{longitude}")
     Call<AirQualityResponse> getAirQualityByCoordinates(
             @Path("latitude") String latitude,
@@ -60,12 +63,14 @@ public interface WeatherService {
             @Query("lang") String lang
     );
 
+    @CallPriority(CallPriority.Level.LOW)
     @GET("v7/air/now")
     Call<AirQualityResponse> getAirQuality(
             @Query("location") String locationId,
             @Query("key") String key
     );
 
+    @CallPriority(CallPriority.Level.HIGH)
     @GET("v7/weather/24h")
     Call<WeatherResponse> getWeather24h(
             @Query("location") String locationId,
@@ -76,6 +81,7 @@ public interface WeatherService {
      * 格点每日天气预报（基于坐标，精度3-5公里）
      * location格式: "lat,lon" 例如: "39.9042,116.4074"
      */
+    @CallPriority(CallPriority.Level.HIGH)
     @GET("v7/grid-weather/15d")
     Call<WeatherResponse> getGridWeatherDaily(
             @Query("location") String location,
@@ -86,6 +92,7 @@ public interface WeatherService {
      * 格点逐小时天气预报（基于坐标，精度3-5公里）
      * location格式: "lat,lon" 例如: "39.9042,116.4074"
      */
+    @CallPriority(CallPriority.Level.HIGH)
     @GET("v7/grid-weather/72h")
     Call<WeatherResponse> getGridWeatherHourly(
             @Query("location") String location,
@@ -96,6 +103,7 @@ public interface WeatherService {
      * 分钟级降水预报（未来2小时，基于坐标）
      * location格式: "lat,lon" 例如: "39.9042,116.4074"
      */
+    @CallPriority(CallPriority.Level.LOW)
     @GET("v7/minutely/5m")
     Call<MinutelyResponse> getMinutelyPrecipitation(
             @Query("location") String location,
@@ -107,6 +115,7 @@ public interface WeatherService {
      * 日出日落时间（基于坐标）
      * location格式: "lat,lon" 例如: "39.9042,116.4074"
      */
+    @CallPriority(CallPriority.Level.LOW)
     @GET("v7/astronomy/sun")
     Call<SunResponse> getSunriseSunset(
             @Query("location") String location,
@@ -119,6 +128,7 @@ public interface WeatherService {
      * 路径参数：latitude, longitude
      * 查询参数：hours（可选1-60，默认24），interval（可选15/30/60分钟，默认60）
      */
+    @CallPriority(CallPriority.Level.LOW)
     @GET("solarradiation/v1/forecast/{latitude}/{longitude}")
     Call<SolarRadiationResponse> getSolarRadiation(
             @Path("latitude") String latitude,
@@ -0,0 +1,175 @@
+package com.example.weatherapp.network.json;
+
+import com.example.weatherapp.models.AirQualityResponse;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * AirQualityResponse流式解析（兼容airquality/v1和v7/air/now两种格式）
+ */
+public class AirQualityResponseAdapter extends StreamingAdapter<AirQualityResponse> {
+
+    @Override
+    public AirQualityResponse read(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        AirQualityResponse response = new AirQualityResponse();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "code":
+                    response.setCode(nextString(reader));
+                    break;
+                case "updateTime":
+                    response.setUpdateTime(nextString(reader));
+                    break;
+                case "metadata":
+                    response.setMetadata(readMetadata(reader));
+                    break;
+                case "indexes":
+                    response.setIndexes(nextList(reader, AirQualityResponseAdapter::readIndex));
+                    break;
+                case "now":
+                    response.setNow(readAirNow(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return response;
+    }
+
+    private static AirQualityResponse.Metadata readMetadata(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        AirQualityResponse.Metadata metadata = new AirQualityResponse.Metadata();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("tag".equals(reader.nextName())) {
+                metadata.setTag(nextString(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return metadata;
+    }
+
+    private static AirQualityResponse.Index readIndex(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        AirQualityResponse.Index index = new AirQualityResponse.Index();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "code":
+                    index.setCode(nextString(reader));
+                    break;
+                case "name":
+                    index.setName(nextString(reader));
+                    break;
+                case "aqi":
+                    index.setAqi(nextInteger(reader));
+                    break;
+                case "aqiDisplay":
+                    index.setAqiDisplay(nextString(reader));
+                    break;
+                case "level":
+                    index.setLevel(nextString(reader));
+                    break;
+                case "category":
+                    index.setCategory(nextString(reader));
+                    break;
+                case "health":
+                    index.setHealth(readHealth(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return index;
+    }
+
+    private static AirQualityResponse.Health readHealth(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        AirQualityResponse.Health health = new AirQualityResponse.Health();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "effect":
+                    health.setEffect(nextString(reader));
+                    break;
+                case "advice":
+                    health.setAdvice(readAdvice(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return health;
+    }
+
+    private static AirQualityResponse.Advice readAdvice(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        AirQualityResponse.Advice advice = new AirQualityResponse.Advice();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "generalPopulation":
+                    advice.setGeneralPopulation(nextString(reader));
+                    break;
+                case "sensitivePopulation":
+                    advice.setSensitivePopulation(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return advice;
+    }
+
+    private static AirQualityResponse.AirNow readAirNow(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        AirQualityResponse.AirNow now = new AirQualityResponse.AirNow();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "aqi":
+                    now.setAqi(nextString(reader));
+                    break;
+                case "level":
+                    now.setLevel(nextString(reader));
+                    break;
+                case "category":
+                    now.setCategory(nextString(reader));
+                    break;
+                case "primary":
+                    now.setPrimary(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return now;
+    }
+}
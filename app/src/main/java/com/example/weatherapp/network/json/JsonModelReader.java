@@ -0,0 +1,12 @@
+package com.example.weatherapp.network.json;
+
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * 从JsonReader读取一个模型对象（只读，不支持序列化）
+ */
+public interface JsonModelReader<T> {
+    T read(JsonReader reader) throws IOException;
+}
@@ -0,0 +1,206 @@
+package com.example.weatherapp.network.json;
+
+import com.example.weatherapp.models.SolarRadiationResponse;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * SolarRadiationResponse流式解析
+ */
+public class SolarRadiationResponseAdapter extends StreamingAdapter<SolarRadiationResponse> {
+
+    @Override
+    public SolarRadiationResponse read(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse response = new SolarRadiationResponse();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "metadata":
+                    response.setMetadata(readMetadata(reader));
+                    break;
+                case "forecasts":
+                    response.setForecasts(nextList(reader, SolarRadiationResponseAdapter::readForecast));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return response;
+    }
+
+    private static SolarRadiationResponse.Metadata readMetadata(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse.Metadata metadata = new SolarRadiationResponse.Metadata();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            if ("tag".equals(reader.nextName())) {
+                metadata.setTag(nextString(reader));
+            } else {
+                reader.skipValue();
+            }
+        }
+        reader.endObject();
+        return metadata;
+    }
+
+    private static SolarRadiationResponse.Forecast readForecast(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse.Forecast forecast = new SolarRadiationResponse.Forecast();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "forecastTime":
+                    forecast.setForecastTime(nextString(reader));
+                    break;
+                case "solarAngle":
+                    forecast.setSolarAngle(readSolarAngle(reader));
+                    break;
+                case "dni":
+                    forecast.setDni(readRadiation(reader));
+                    break;
+                case "dhi":
+                    forecast.setDhi(readRadiation(reader));
+                    break;
+                case "ghi":
+                    forecast.setGhi(readRadiation(reader));
+                    break;
+                case "weather":
+                    forecast.setWeather(readWeather(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return forecast;
+    }
+
+    private static SolarRadiationResponse.SolarAngle readSolarAngle(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse.SolarAngle angle = new SolarRadiationResponse.SolarAngle();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "azimuth":
+                    angle.setAzimuth(nextDouble(reader));
+                    break;
+                case "elevation":
+                    angle.setElevation(nextDouble(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return angle;
+    }
+
+    private static SolarRadiationResponse.RadiationValue readRadiation(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse.RadiationValue radiation = new SolarRadiationResponse.RadiationValue();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "value":
+                    radiation.setValue(nextDouble(reader));
+                    break;
+                case "unit":
+                    radiation.setUnit(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return radiation;
+    }
+
+    private static SolarRadiationResponse.Weather readWeather(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse.Weather weather = new SolarRadiationResponse.Weather();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "temperature":
+                    weather.setTemperature(readTemperature(reader));
+                    break;
+                case "windSpeed":
+                    weather.setWindSpeed(readWindSpeed(reader));
+                    break;
+                case "humidity":
+                    weather.setHumidity(nextInteger(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return weather;
+    }
+
+    private static SolarRadiationResponse.TemperatureValue readTemperature(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse.TemperatureValue temperature = new SolarRadiationResponse.TemperatureValue();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "value":
+                    temperature.setValue(nextDouble(reader));
+                    break;
+                case "unit":
+                    temperature.setUnit(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return temperature;
+    }
+
+    private static SolarRadiationResponse.WindSpeedValue readWindSpeed(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        SolarRadiationResponse.WindSpeedValue windSpeed = new SolarRadiationResponse.WindSpeedValue();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "value":
+                    windSpeed.setValue(nextDouble(reader));
+                    break;
+                case "unit":
+                    windSpeed.setUnit(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return windSpeed;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.weatherapp.network.json;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基于JsonReader的流式解析基类
+ * 子类手写每个模型的字段映射，不使用反射，模型中没有的字段直接跳过
+ * 只用于解析API响应，由StreamingConverterFactory直接调用，不注册到Gson
+ */
+public abstract class StreamingAdapter<T> implements JsonModelReader<T> {
+
+    /**
+     * 读取单个元素
+     */
+    protected interface ElementReader<E> {
+        E read(JsonReader reader) throws IOException;
+    }
+
+    /**
+     * 读取字符串，兼容数字类型，null返回null
+     */
+    protected static String nextString(JsonReader reader) throws IOException {
+        JsonToken token = reader.peek();
+        if (token == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        if (token == JsonToken.BOOLEAN) {
+            return Boolean.toString(reader.nextBoolean());
+        }
+        return reader.nextString();
+    }
+
+    /**
+     * 读取整数，兼容字符串形式的数字，null返回null
+     */
+    protected static Integer nextInteger(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextInt();
+    }
+
+    /**
+     * 读取浮点数，兼容字符串形式的数字，null返回null
+     */
+    protected static Double nextDouble(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        return reader.nextDouble();
+    }
+
+    /**
+     * 读取数组，null返回null
+     */
+    protected static <E> List<E> nextList(JsonReader reader, ElementReader<E> elementReader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return null;
+        }
+        List<E> list = new ArrayList<>();
+        reader.beginArray();
+        while (reader.hasNext()) {
+            list.add(elementReader.read(reader));
+        }
+        reader.endArray();
+        return list;
+    }
+
+    /**
+     * 对象为null时消费掉null并返回true
+     */
+    protected static boolean skipNull(JsonReader reader) throws IOException {
+        if (reader.peek() == JsonToken.NULL) {
+            reader.nextNull();
+            return true;
+        }
+        return false;
+    }
+}
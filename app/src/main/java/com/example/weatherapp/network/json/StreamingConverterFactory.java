@@ -0,0 +1,58 @@
+package com.example.weatherapp.network.json;
+
+import com.example.weatherapp.models.AirQualityResponse;
+import com.example.weatherapp.models.SolarRadiationResponse;
+import com.example.weatherapp.models.WeatherResponse;
+import com.google.gson.JsonIOException;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.HashMap;
+import java.util.Map;
+
+import okhttp3.ResponseBody;
+import retrofit2.Converter;
+import retrofit2.Retrofit;
+
+/**
+ * 流式JSON转换器
+ * 对大响应的模型（天气预报、空气质量、太阳辐射）使用手写的StreamingAdapter直接解析，
+ * 其他类型返回null，交给后面注册的GsonConverterFactory处理
+ */
+public class StreamingConverterFactory extends Converter.Factory {
+
+    private final Map<Type, JsonModelReader<?>> adapters = new HashMap<>();
+
+    private StreamingConverterFactory() {
+        adapters.put(WeatherResponse.class, new WeatherResponseAdapter());
+        adapters.put(AirQualityResponse.class, new AirQualityResponseAdapter());
+        adapters.put(SolarRadiationResponse.class, new SolarRadiationResponseAdapter());
+    }
+
+    public static StreamingConverterFactory create() {
+        return new StreamingConverterFactory();
+    }
+
+    @Override
+    public Converter<ResponseBody, ?> responseBodyConverter(Type type, Annotation[] annotations,
+                                                            Retrofit retrofit) {
+        JsonModelReader<?> adapter = adapters.get(type);
+        if (adapter == null) {
+            return null;
+        }
+        return body -> {
+            try {
+                JsonReader reader = new JsonReader(body.charStream());
+                Object result = adapter.read(reader);
+                if (reader.peek() != JsonToken.END_DOCUMENT) {
+                    throw new JsonIOException("JSON document was not fully consumed.");
+                }
+                return result;
+            } finally {
+                body.close();
+            }
+        };
+    }
+}
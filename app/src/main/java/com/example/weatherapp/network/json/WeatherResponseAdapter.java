@@ -0,0 +1,153 @@
+package com.example.weatherapp.network.json;
+
+import com.example.weatherapp.models.WeatherResponse;
+import com.google.gson.stream.JsonReader;
+
+import java.io.IOException;
+
+/**
+ * WeatherResponse流式解析（实时天气、逐日预报、逐小时预报、格点预报共用）
+ */
+public class WeatherResponseAdapter extends StreamingAdapter<WeatherResponse> {
+
+    @Override
+    public WeatherResponse read(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        WeatherResponse response = new WeatherResponse();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "code":
+                    response.setCode(nextString(reader));
+                    break;
+                case "updateTime":
+                    response.setUpdateTime(nextString(reader));
+                    break;
+                case "now":
+                    response.setNow(readNow(reader));
+                    break;
+                case "daily":
+                    response.setDaily(nextList(reader, WeatherResponseAdapter::readDaily));
+                    break;
+                case "hourly":
+                    response.setHourly(nextList(reader, WeatherResponseAdapter::readHourly));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return response;
+    }
+
+    private static WeatherResponse.Now readNow(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        WeatherResponse.Now now = new WeatherResponse.Now();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "temp":
+                    now.setTemp(nextString(reader));
+                    break;
+                case "text":
+                    now.setText(nextString(reader));
+                    break;
+                case "feelsLike":
+                    now.setFeelsLike(nextString(reader));
+                    break;
+                case "icon":
+                    now.setIcon(nextString(reader));
+                    break;
+                case "humidity":
+                    now.setHumidity(nextString(reader));
+                    break;
+                case "windDir":
+                    now.setWindDir(nextString(reader));
+                    break;
+                case "windScale":
+                    now.setWindScale(nextString(reader));
+                    break;
+                case "windSpeed":
+                    now.setWindSpeed(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return now;
+    }
+
+    private static WeatherResponse.Daily readDaily(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        WeatherResponse.Daily daily = new WeatherResponse.Daily();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "tempMax":
+                    daily.setTempMax(nextString(reader));
+                    break;
+                case "tempMin":
+                    daily.setTempMin(nextString(reader));
+                    break;
+                case "textDay":
+                    daily.setTextDay(nextString(reader));
+                    break;
+                case "iconDay":
+                    daily.setIconDay(nextString(reader));
+                    break;
+                case "fxDate":
+                    daily.setFxDate(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return daily;
+    }
+
+    private static WeatherResponse.Hourly readHourly(JsonReader reader) throws IOException {
+        if (skipNull(reader)) {
+            return null;
+        }
+        WeatherResponse.Hourly hourly = new WeatherResponse.Hourly();
+        reader.beginObject();
+        while (reader.hasNext()) {
+            switch (reader.nextName()) {
+                case "fxTime":
+                    hourly.setFxTime(nextString(reader));
+                    break;
+                case "temp":
+                    hourly.setTemp(nextString(reader));
+                    break;
+                case "text":
+                    hourly.setText(nextString(reader));
+                    break;
+                case "icon":
+                    hourly.setIcon(nextString(reader));
+                    break;
+                case "windDir":
+                    hourly.setWindDir(nextString(reader));
+                    break;
+                case "windScale":
+                    hourly.setWindScale(nextString(reader));
+                    break;
+                default:
+                    reader.skipValue();
+                    break;
+            }
+        }
+        reader.endObject();
+        return hourly;
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.weatherapp.repository;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.example.weatherapp.database.AppDatabase;
+import com.example.weatherapp.database.CityCache;
+import com.example.weatherapp.database.CityDao;
+import com.example.weatherapp.database.GazetteerDao;
+import com.example.weatherapp.database.GazetteerDatabase;
+import com.example.weatherapp.models.City;
+import com.example.weatherapp.models.GazetteerCity;
+import com.example.weatherapp.models.GeoCityResponse;
+import com.example.weatherapp.network.ApiClient;
+import com.example.weatherapp.network.WeatherService;
+import com.example.weatherapp.utils.Constants;
+import com.example.weatherapp.utils.SharedPrefsUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * 补全城市经纬度的后台任务
+ * 早期版本保存的城市没有经纬度，刷新时才临时通过GeoAPI查询。本任务一次性找出所有缺经纬度的城市，
+ * 先查离线城市库，查不到的再通过GeoAPI查询（同时进行的请求不超过MAX_CONCURRENT个），
+ * 每BATCH_SIZE个城市的结果在一个事务中写回；刷新流程不再查询经纬度
+ * 进度就是数据库本身：中途退出后下次启动从仍缺经纬度的城市继续；GeoAPI明确查不到的城市记录下来不再重试
+ */
+public class CoordinateBackfill {
+
+    private static final String TAG = "CoordinateBackfill";
+
+    static final int MAX_CONCURRENT = 3;
+    static final int BATCH_SIZE = 50;
+
+    private static volatile CoordinateBackfill INSTANCE;
+
+    private final Context context;
+    private final CityCache cityCache;
+    private final GazetteerDao gazetteerDao;
+    /** 首次在线查询时在后台线程创建，不在启动时的主线程上构建网络客户端 */
+    private WeatherService weatherService;
+    private CompletableFuture<Integer> running;
+
+    private CoordinateBackfill(Context context) {
+        this.context = context.getApplicationContext();
+        this.cityCache = CityCache.getInstance(this.context);
+        this.gazetteerDao = GazetteerDatabase.getInstance(this.context).gazetteerDao();
+    }
+
+    public static CoordinateBackfill getInstance(Context context) {
+        if (INSTANCE == null) {
+            synchronized (CoordinateBackfill.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new CoordinateBackfill(context);
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 开始补全，已在运行时返回正在运行的任务
+     * @return 补全经纬度的城市数
+     */
+    public synchronized CompletableFuture<Integer> start() {
+        if (running != null && !running.isDone()) {
+            return running;
+        }
+        running = cityCache.getAllAsync()
+                .thenCompose(this::runBatches)
+                .whenComplete((filled, error) -> {
+                    if (error != null) {
+                        Log.e(TAG, "补全经纬度失败", error);
+                    } else if (filled > 0) {
+                        Log.i(TAG, "补全经纬度 " + filled + " 个城市");
+                    }
+                });
+        return running;
+    }
+
+    private synchronized WeatherService weatherService() {
+        if (weatherService == null) {
+            weatherService = ApiClient.getClient().create(WeatherService.class);
+        }
+        return weatherService;
+    }
+
+    private CompletableFuture<Integer> runBatches(List<City> cities) {
+        Set<String> unresolved = SharedPrefsUtils.getUnresolvedLocationIds(context);
+        List<City> missing = new ArrayList<>();
+        for (City city : cities) {
+            if (!hasCoordinates(city) && city.locationId != null && !city.locationId.isEmpty()
+                    && !unresolved.contains(city.locationId)) {
+                missing.add(city);
+            }
+        }
+        CompletableFuture<Integer> result = CompletableFuture.completedFuture(0);
+        for (int from = 0; from < missing.size(); from += BATCH_SIZE) {
+            List<City> batch = missing.subList(from, Math.min(from + BATCH_SIZE, missing.size()));
+            result = result.thenCompose(filled -> runBatch(batch).thenApply(n -> filled + n));
+        }
+        return result;
+    }
+
+    /**
+     * 补全一批城市：离线城市库 → GeoAPI → 一个事务写回
+     */
+    private CompletableFuture<Integer> runBatch(List<City> batch) {
+        return CompletableFuture.supplyAsync(() -> lookupOffline(batch), AppDatabase.databaseExecutor())
+                .thenCompose(offline -> {
+                    List<City> remaining = new ArrayList<>();
+                    for (City city : batch) {
+                        if (!offline.containsKey(city.locationId)) {
+                            remaining.add(city);
+                        }
+                    }
+                    return new OnlineLookup(remaining).start().thenApply(online -> {
+                        Map<String, GeoCityResponse.Location> found = new HashMap<>(offline);
+                        found.putAll(online);
+                        return found;
+                    });
+                })
+                .thenCompose(found -> {
+                    List<City> updates = new ArrayList<>(found.size());
+                    for (City city : batch) {
+                        GeoCityResponse.Location location = found.get(city.locationId);
+                        if (location != null) {
+                            updates.add(new City(city.name, city.locationId, location.lat, location.lon));
+                        }
+                    }
+                    return updates.isEmpty()
+                            ? CompletableFuture.completedFuture(0)
+                            : cityCache.updateCoordinatesAsync(updates);
+                });
+    }
+
+    private Map<String, GeoCityResponse.Location> lookupOffline(List<City> batch) {
+        List<String> locationIds = new ArrayList<>(batch.size());
+        for (City city : batch) {
+            locationIds.add(city.locationId);
+        }
+        Map<String, GeoCityResponse.Location> found = new HashMap<>();
+        for (int from = 0; from < locationIds.size(); from += CityDao.MAX_BIND_ARGS) {
+            List<GazetteerCity> rows = gazetteerDao.getByLocationIds(
+                    locationIds.subList(from, Math.min(from + CityDao.MAX_BIND_ARGS, locationIds.size())));
+            for (GazetteerCity row : rows) {
+                GeoCityResponse.Location location = row.toLocation();
+                if (isValid(location)) {
+                    found.put(row.locationId, location);
+                }
+            }
+        }
+        return found;
+    }
+
+    /**
+     * 一批城市的GeoAPI查询，同时进行的请求不超过MAX_CONCURRENT个
+     * 请求失败（网络错误等）的城市下次再试，GeoAPI返回查不到的城市记录下来不再查询
+     */
+    private final class OnlineLookup {
+        private final ArrayDeque<City> queue;
+        private final Map<String, GeoCityResponse.Location> found = new HashMap<>();
+        private final List<String> notFound = new ArrayList<>();
+        private final CompletableFuture<Map<String, GeoCityResponse.Location>> future = new CompletableFuture<>();
+        private int inFlight;
+
+        OnlineLookup(List<City> cities) {
+            this.queue = new ArrayDeque<>(cities);
+        }
+
+        CompletableFuture<Map<String, GeoCityResponse.Location>> start() {
+            pump();
+            return future;
+        }
+
+        private void pump() {
+            List<City> next = new ArrayList<>();
+            synchronized (this) {
+                while (inFlight < MAX_CONCURRENT && !queue.isEmpty()) {
+                    next.add(queue.poll());
+                    inFlight++;
+                }
+                if (inFlight == 0 && !future.isDone()) {
+                    if (!notFound.isEmpty()) {
+                        SharedPrefsUtils.addUnresolvedLocationIds(context, notFound);
+                    }
+                    future.complete(found);
+                    return;
+                }
+            }
+            for (City city : next) {
+                lookup(city);
+            }
+        }
+
+        private void lookup(City city) {
+            Call<GeoCityResponse> call = weatherService().searchCity(city.locationId,
+                    Constants.QWEATHER_API_KEY, null, null, 1, "zh");
+            call.enqueue(new retrofit2.Callback<GeoCityResponse>() {
+                @Override
+                public void onResponse(Call<GeoCityResponse> c, Response<GeoCityResponse> response) {
+                    GeoCityResponse body = response.isSuccessful() ? response.body() : null;
+                    synchronized (OnlineLookup.this) {
+                        if (body != null && "200".equals(body.code) && body.location != null
+                                && !body.location.isEmpty() && isValid(body.location.get(0))) {
+                            found.put(city.locationId, body.location.get(0));
+                        } else if (body != null && "404".equals(body.code)) {
+                            notFound.add(city.locationId);
+                        }
+                        inFlight--;
+                    }
+                    pump();
+                }
+
+                @Override
+                public void onFailure(Call<GeoCityResponse> c, Throwable t) {
+                    Log.w(TAG, "查询经纬度失败: " + city.locationId, t);
+                    synchronized (OnlineLookup.this) {
+                        inFlight--;
+                    }
+                    pump();
+                }
+            });
+        }
+    }
+
+    private static boolean hasCoordinates(City city) {
+        return city.latitude != null && city.longitude != null
+                && !city.latitude.isEmpty() && !city.longitude.isEmpty();
+    }
+
+    private static boolean isValid(GeoCityResponse.Location location) {
+        return location.lat != null && location.lon != null && !location.lat.isEmpty() && !location.lon.isEmpty();
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.weatherapp.repository;
+
+import android.util.Log;
+
+import com.example.weatherapp.database.AppDatabase;
+import com.example.weatherapp.database.WeatherSnapshotDao;
+import com.example.weatherapp.models.AirQualityResponse;
+import com.example.weatherapp.models.MinutelyResponse;
+import com.example.weatherapp.models.SolarRadiationResponse;
+import com.example.weatherapp.models.SunResponse;
+import com.example.weatherapp.models.WeatherResponse;
+import com.example.weatherapp.models.WeatherSnapshot;
+import com.example.weatherapp.repository.WeatherBundle.Section;
+import com.example.weatherapp.repository.WeatherBundle.Status;
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 天气快照存储
+ * 把每次刷新成功的各部分数据以JSON写入weather_snapshot表，下次启动或离线时直接读出显示；
+ * 超过TTL的快照删除，总大小超过上限时从最久未刷新的城市开始删除
+ */
+public class SnapshotStore {
+
+    private static final String TAG = "SnapshotStore";
+
+    static final long TTL_MS = TimeUnit.DAYS.toMillis(7);
+    static final long MAX_PAYLOAD_CHARS = 2L * 1024 * 1024;
+
+    private static final Type DAILY_LIST = new TypeToken<List<WeatherResponse.Daily>>() {}.getType();
+    private static final Type HOURLY_LIST = new TypeToken<List<WeatherResponse.Hourly>>() {}.getType();
+
+    private final WeatherSnapshotDao dao;
+    private final Gson gson = new Gson();
+
+    public SnapshotStore(AppDatabase database) {
+        this.dao = database.weatherSnapshotDao();
+    }
+
+    /**
+     * 在数据库线程中保存一次网络刷新的结果，只保存状态为OK的部分
+     */
+    public CompletableFuture<Void> saveAsync(WeatherBundle bundle) {
+        return CompletableFuture.runAsync(() -> save(bundle), AppDatabase.databaseExecutor());
+    }
+
+    /**
+     * 在数据库线程中读取城市的快照，组装为WeatherBundle（isFromCache为true）
+     * 没有快照的部分状态为FAILED
+     */
+    public CompletableFuture<WeatherBundle> loadAsync(String locationId, String cityName) {
+        return CompletableFuture.supplyAsync(() -> load(locationId, cityName), AppDatabase.databaseExecutor());
+    }
+
+    private void save(WeatherBundle bundle) {
+        if (bundle.isFromCache() || bundle.getLocationId() == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        List<WeatherSnapshot> snapshots = new ArrayList<>();
+        for (Section section : Section.values()) {
+            if (!bundle.isOk(section)) {
+                continue;
+            }
+            Object data = dataOf(bundle, section);
+            if (data == null) {
+                continue;
+            }
+            long fetchTime = bundle.getReceivedAt(section);
+            snapshots.add(new WeatherSnapshot(bundle.getLocationId(), section.name(), gson.toJson(data),
+                    fetchTime > 0 ? fetchTime : now, bundle.getUpdateTime(section)));
+        }
+        if (snapshots.isEmpty()) {
+            return;
+        }
+        dao.replace(bundle.getLocationId(), snapshots, now - TTL_MS, MAX_PAYLOAD_CHARS);
+    }
+
+    private WeatherBundle load(String locationId, String cityName) {
+        WeatherBundle.Builder builder = new WeatherBundle.Builder(locationId, cityName, true);
+        for (Section section : Section.values()) {
+            builder.status(section, Status.FAILED);
+        }
+        if (locationId == null) {
+            return builder.build(0);
+        }
+        for (WeatherSnapshot snapshot : dao.getByLocationId(locationId, System.currentTimeMillis() - TTL_MS)) {
+            Section section;
+            try {
+                section = Section.valueOf(snapshot.section);
+            } catch (IllegalArgumentException e) {
+                // 旧版本写入、当前版本已不存在的部分
+                continue;
+            }
+            try {
+                if (!applyPayload(builder, section, snapshot.payload)) {
+                    continue;
+                }
+            } catch (JsonParseException e) {
+                Log.w(TAG, "快照解析失败: " + locationId + "/" + section, e);
+                continue;
+            }
+            builder.status(section, Status.OK)
+                    .receivedAt(section, snapshot.fetchTime)
+                    .updateTime(section, snapshot.updateTime);
+        }
+        return builder.build(0);
+    }
+
+    private static Object dataOf(WeatherBundle bundle, Section section) {
+        switch (section) {
+            case NOW:
+                return bundle.getNow();
+            case DAILY:
+                return bundle.getDaily();
+            case HOURLY:
+                return bundle.getHourly();
+            case AIR:
+                return bundle.getAirQuality();
+            case SUN:
+                return bundle.getSun();
+            case SOLAR:
+                return bundle.getSolarForecast();
+            case MINUTELY:
+                return bundle.getMinutely();
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * 把快照数据填入对应部分
+     * @return 数据为空时返回false
+     */
+    private boolean applyPayload(WeatherBundle.Builder builder, Section section, String payload) {
+        if (payload == null) {
+            return false;
+        }
+        switch (section) {
+            case NOW: {
+                WeatherResponse.Now now = gson.fromJson(payload, WeatherResponse.Now.class);
+                builder.now(now);
+                return now != null;
+            }
+            case DAILY: {
+                List<WeatherResponse.Daily> daily = gson.fromJson(payload, DAILY_LIST);
+                builder.daily(daily);
+                return daily != null;
+            }
+            case HOURLY: {
+                List<WeatherResponse.Hourly> hourly = gson.fromJson(payload, HOURLY_LIST);
+                builder.hourly(hourly);
+                return hourly != null;
+            }
+            case AIR: {
+                AirQualityResponse air = gson.fromJson(payload, AirQualityResponse.class);
+                builder.airQuality(air);
+                return air != null;
+            }
+            case SUN: {
+                SunResponse sun = gson.fromJson(payload, SunResponse.class);
+                builder.sun(sun);
+                return sun != null;
+            }
+            case SOLAR: {
+                SolarRadiationResponse.Forecast forecast =
+                        gson.fromJson(payload, SolarRadiationResponse.Forecast.class);
+                builder.solarForecast(forecast);
+                return forecast != null;
+            }
+            case MINUTELY: {
+                MinutelyResponse minutely = gson.fromJson(payload, MinutelyResponse.class);
+                builder.minutely(minutely);
+                return minutely != null;
+            }
+            default:
+                return false;
+        }
+    }
+}
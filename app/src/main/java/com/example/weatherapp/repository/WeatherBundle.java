@@ -0,0 +1,248 @@
+package com.example.weatherapp.repository;
+
+import com.example.weatherapp.models.AirQualityResponse;
+import com.example.weatherapp.models.MinutelyResponse;
+import com.example.weatherapp.models.SolarRadiationResponse;
+import com.example.weatherapp.models.SunResponse;
+import com.example.weatherapp.models.WeatherResponse;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 一次刷新的完整天气数据
+ * 包含各部分（实时、逐日、逐小时、空气质量、日出日落、太阳辐射、分钟级降水）的结果和状态，
+ * 某部分失败或超时不影响其他部分，创建后不再修改
+ */
+public final class WeatherBundle {
+
+    /**
+     * 数据部分
+     */
+    public enum Section {
+        NOW, DAILY, HOURLY, AIR, SUN, SOLAR, MINUTELY
+    }
+
+    /**
+     * 每个部分的加载状态
+     */
+    public enum Status {
+        OK,       // 成功
+        FAILED,   // 请求失败或返回错误码
+        TIMEOUT,  // 超时
+        SKIPPED   // 缺少必要参数（如经纬度），未请求
+    }
+
+    private final String locationId;
+    private final String cityName;
+    private final WeatherResponse.Now now;
+    private final List<WeatherResponse.Daily> daily;
+    private final List<WeatherResponse.Hourly> hourly;
+    private final AirQualityResponse airQuality;
+    private final SunResponse sun;
+    private final SolarRadiationResponse.Forecast solarForecast;
+    private final MinutelyResponse minutely;
+    private final Map<Section, Status> statuses;
+    private final Map<Section, Long> receivedAt;
+    private final Map<Section, String> updateTimes;
+    private final boolean fromCache;
+    private final long elapsedMillis;
+
+    private WeatherBundle(Builder builder, long elapsedMillis) {
+        this.locationId = builder.locationId;
+        this.cityName = builder.cityName;
+        this.now = builder.now;
+        this.daily = builder.daily != null ? Collections.unmodifiableList(builder.daily) : null;
+        this.hourly = builder.hourly != null ? Collections.unmodifiableList(builder.hourly) : null;
+        this.airQuality = builder.airQuality;
+        this.sun = builder.sun;
+        this.solarForecast = builder.solarForecast;
+        this.minutely = builder.minutely;
+        this.statuses = Collections.unmodifiableMap(new EnumMap<>(builder.statuses));
+        this.receivedAt = Collections.unmodifiableMap(new EnumMap<>(builder.receivedAt));
+        this.updateTimes = Collections.unmodifiableMap(new EnumMap<>(builder.updateTimes));
+        this.fromCache = builder.fromCache;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public String getLocationId() {
+        return locationId;
+    }
+
+    public String getCityName() {
+        return cityName;
+    }
+
+    public WeatherResponse.Now getNow() {
+        return now;
+    }
+
+    public List<WeatherResponse.Daily> getDaily() {
+        return daily;
+    }
+
+    public List<WeatherResponse.Hourly> getHourly() {
+        return hourly;
+    }
+
+    public AirQualityResponse getAirQuality() {
+        return airQuality;
+    }
+
+    public SunResponse getSun() {
+        return sun;
+    }
+
+    public SolarRadiationResponse.Forecast getSolarForecast() {
+        return solarForecast;
+    }
+
+    public MinutelyResponse getMinutely() {
+        return minutely;
+    }
+
+    /**
+     * 获取某部分的状态，未记录的部分视为超时
+     */
+    public Status getStatus(Section section) {
+        Status status = statuses.get(section);
+        return status != null ? status : Status.TIMEOUT;
+    }
+
+    public boolean isOk(Section section) {
+        return getStatus(section) == Status.OK;
+    }
+
+    /**
+     * 某部分数据从服务器返回的时间（毫秒时间戳），来自缓存时为当初写入缓存的时间，没有数据时为0
+     */
+    public long getReceivedAt(Section section) {
+        Long time = receivedAt.get(section);
+        return time != null ? time : 0;
+    }
+
+    /**
+     * 某部分数据在API中的更新时间（API返回的updateTime），没有时为null
+     */
+    public String getUpdateTime(Section section) {
+        return updateTimes.get(section);
+    }
+
+    /**
+     * 是否只从本地缓存读取（未访问网络）
+     */
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    /**
+     * 从开始请求到数据完整（或超时）的总耗时
+     */
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * 转换为WeatherResponse（实时+逐日+逐小时），兼容原有UI更新代码
+     */
+    public WeatherResponse toWeatherResponse() {
+        WeatherResponse weather = new WeatherResponse();
+        weather.setCityName(cityName);
+        weather.setNow(now);
+        weather.setDaily(daily);
+        weather.setHourly(hourly);
+        return weather;
+    }
+
+    /**
+     * 各部分状态摘要，用于日志
+     */
+    @Override
+    public String toString() {
+        return "WeatherBundle{" + cityName + (fromCache ? ", cache" : "") + ", " + statuses + ", "
+                + elapsedMillis + "ms}";
+    }
+
+    /**
+     * 构建器：由WeatherRepository在主线程中逐步填充
+     */
+    static final class Builder {
+        private final String locationId;
+        private final String cityName;
+        private WeatherResponse.Now now;
+        private List<WeatherResponse.Daily> daily;
+        private List<WeatherResponse.Hourly> hourly;
+        private AirQualityResponse airQuality;
+        private SunResponse sun;
+        private SolarRadiationResponse.Forecast solarForecast;
+        private MinutelyResponse minutely;
+        private final Map<Section, Status> statuses = new EnumMap<>(Section.class);
+        private final Map<Section, Long> receivedAt = new EnumMap<>(Section.class);
+        private final Map<Section, String> updateTimes = new EnumMap<>(Section.class);
+        private final boolean fromCache;
+
+        Builder(String locationId, String cityName, boolean fromCache) {
+            this.locationId = locationId;
+            this.cityName = cityName;
+            this.fromCache = fromCache;
+        }
+
+        Builder now(WeatherResponse.Now now) {
+            this.now = now;
+            return this;
+        }
+
+        Builder daily(List<WeatherResponse.Daily> daily) {
+            this.daily = daily;
+            return this;
+        }
+
+        Builder hourly(List<WeatherResponse.Hourly> hourly) {
+            this.hourly = hourly;
+            return this;
+        }
+
+        Builder airQuality(AirQualityResponse airQuality) {
+            this.airQuality = airQuality;
+            return this;
+        }
+
+        Builder sun(SunResponse sun) {
+            this.sun = sun;
+            return this;
+        }
+
+        Builder solarForecast(SolarRadiationResponse.Forecast solarForecast) {
+            this.solarForecast = solarForecast;
+            return this;
+        }
+
+        Builder minutely(MinutelyResponse minutely) {
+            this.minutely = minutely;
+            return this;
+        }
+
+        Builder status(Section section, Status status) {
+            statuses.put(section, status);
+            return this;
+        }
+
+        Builder receivedAt(Section section, long time) {
+            receivedAt.put(section, time);
+            return this;
+        }
+
+        Builder updateTime(Section section, String updateTime) {
+            if (updateTime != null) {
+                updateTimes.put(section, updateTime);
+            }
+            return this;
+        }
+
+        WeatherBundle build(long elapsedMillis) {
+            return new WeatherBundle(this, elapsedMillis);
+        }
+    }
+}
@@ -0,0 +1,465 @@
+package com.example.weatherapp.repository;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.example.weatherapp.database.AppDatabase;
+import com.example.weatherapp.database.CityCache;
+import com.example.weatherapp.models.City;
+import com.example.weatherapp.models.MinutelyResponse;
+import com.example.weatherapp.network.ApiClient;
+import com.example.weatherapp.network.WeatherService;
+import com.example.weatherapp.repository.WeatherBundle.Section;
+import com.example.weatherapp.repository.WeatherBundle.Status;
+import com.example.weatherapp.utils.Constants;
+import com.example.weatherapp.utils.DateUtils;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+
+import retrofit2.Call;
+import retrofit2.Response;
+
+/**
+ * 天气数据仓库
+ * 并行请求一个城市的所有天气数据（含格点、经纬度等备用方案），
+ * 在全部完成或超时后一次性返回WeatherBundle；
+ * 成功的部分写入本地快照（SnapshotStore），下次可以先显示快照再后台刷新（stale-while-revalidate）
+ * 刷新时不查询经纬度：城市没有经纬度时依赖经纬度的部分失败或跳过，并启动CoordinateBackfill在后台补全
+ */
+public class WeatherRepository {
+
+    private static final String TAG = "WeatherRepository";
+
+    /** 整体超时：到时仍未完成的部分（包括正在使用备用方案的部分）标记为TIMEOUT */
+    static final long GLOBAL_TIMEOUT_MS = 10_000;
+    /** 单个请求的超时：到时取消请求并按失败处理，有备用方案的部分在整体超时前还能尝试备用方案 */
+    static final long REQUEST_TIMEOUT_MS = 5_000;
+
+    /**
+     * 加载结果回调（在主线程执行）
+     */
+    public interface Callback {
+        void onLoaded(WeatherBundle bundle);
+    }
+
+    /**
+     * 可取消的加载
+     */
+    public interface Cancellable {
+        void cancel();
+    }
+
+    /**
+     * 单个请求结果回调，请求失败时body为null、httpCode为-1
+     */
+    private interface ResultCallback<T> {
+        void onResult(T body, int httpCode);
+    }
+
+    private final WeatherService weatherService;
+    private final CityCache cityCache;
+    private final SnapshotStore snapshotStore;
+    private final CoordinateBackfill coordinateBackfill;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    public WeatherRepository(Context context) {
+        this.weatherService = ApiClient.getClient().create(WeatherService.class);
+        this.cityCache = CityCache.getInstance(context);
+        this.snapshotStore = new SnapshotStore(AppDatabase.getInstance(context));
+        this.coordinateBackfill = CoordinateBackfill.getInstance(context);
+    }
+
+    /**
+     * 加载城市的天气数据，必须在主线程调用（城市信息从CityCache读取）
+     * @return 本次加载，可用于取消
+     */
+    public Load load(String locationId, String cityName, Callback callback) {
+        Load load = new Load(locationId, cityName, callback);
+        load.start();
+        return load;
+    }
+
+    /**
+     * 只从本地快照加载（不访问网络），必须在主线程调用
+     * 没有快照的部分状态为FAILED
+     * @return 可用于取消，取消后不再回调
+     */
+    public Cancellable loadCached(String locationId, String cityName, Callback callback) {
+        boolean[] canceled = new boolean[1];
+        snapshotStore.loadAsync(locationId, cityName).whenComplete((bundle, error) -> {
+            if (error != null) {
+                Log.e(TAG, "读取快照失败: " + locationId, error);
+                return;
+            }
+            mainHandler.post(() -> {
+                if (!canceled[0]) {
+                    Log.d(TAG, "loaded " + bundle);
+                    callback.onLoaded(bundle);
+                }
+            });
+        });
+        return () -> canceled[0] = true;
+    }
+
+    /**
+     * 一次加载过程
+     * 所有状态都只在主线程中修改
+     */
+    public final class Load implements Cancellable {
+        private final String locationId;
+        private final String cityName;
+        private final Callback callback;
+        private final WeatherBundle.Builder builder;
+        private final EnumSet<Section> pending = EnumSet.allOf(Section.class);
+        private final List<Call<?>> calls = new ArrayList<>();
+        private final long startTime = SystemClock.elapsedRealtime();
+        private boolean finished;
+        private City city;
+        private boolean cityLoaded;
+        private final List<Runnable> cityWaiters = new ArrayList<>();
+        /** 正在处理的响应的接收时间，complete(OK)时记录到对应部分 */
+        private long currentReceivedAt;
+
+        private Load(String locationId, String cityName, Callback callback) {
+            this.locationId = locationId;
+            this.cityName = cityName;
+            this.callback = callback;
+            this.builder = new WeatherBundle.Builder(locationId, cityName, false);
+        }
+
+        private void start() {
+            mainHandler.postAtTime(this::onGlobalTimeout, this,
+                    SystemClock.uptimeMillis() + GLOBAL_TIMEOUT_MS);
+
+            // 城市信息（经纬度）从CityCache读取，缓存未加载时在数据库线程中查询，不需要经纬度的请求先发出
+            cityCache.findAsync(locationId, cityName).whenComplete((result, error) -> {
+                if (error != null) {
+                    Log.e(TAG, "查询城市失败: " + locationId, error);
+                }
+                runOnMain(() -> onCityLoaded(result));
+            });
+
+            fetchNow();
+            fetchDaily();
+            fetchHourly();
+            fetchAirQuality();
+            whenCityLoaded(() -> {
+                fetchSun();
+                fetchSolarRadiation();
+                fetchMinutely();
+            });
+        }
+
+        private void onCityLoaded(City result) {
+            city = result;
+            cityLoaded = true;
+            if (city != null && !hasCoordinates()) {
+                coordinateBackfill.start();
+            }
+            for (Runnable waiter : cityWaiters) {
+                waiter.run();
+            }
+            cityWaiters.clear();
+        }
+
+        /**
+         * 城市信息查询完成后执行（已完成时立即执行）
+         */
+        private void whenCityLoaded(Runnable action) {
+            if (cityLoaded) {
+                action.run();
+            } else {
+                cityWaiters.add(action);
+            }
+        }
+
+        /**
+         * 取消加载，不再回调
+         */
+        @Override
+        public void cancel() {
+            if (!finished) {
+                finished = true;
+                cleanup();
+            }
+        }
+
+        // ==================== 各部分请求 ====================
+
+        private void fetchNow() {
+            enqueue(Section.NOW, weatherService.getWeatherNow(locationId, Constants.QWEATHER_API_KEY), (body, code) -> {
+                if (body != null && "200".equals(body.getCode())) {
+                    builder.now(body.getNow()).updateTime(Section.NOW, body.getUpdateTime());
+                    complete(Section.NOW, Status.OK);
+                } else {
+                    complete(Section.NOW, Status.FAILED);
+                }
+            });
+        }
+
+        /**
+         * 15天预报，主API失败时使用格点API
+         */
+        private void fetchDaily() {
+            enqueue(Section.DAILY, weatherService.getWeather15d(locationId, Constants.QWEATHER_API_KEY), (body, code) -> {
+                if (body != null && "200".equals(body.getCode())) {
+                    builder.daily(body.getDaily()).updateTime(Section.DAILY, body.getUpdateTime());
+                    complete(Section.DAILY, Status.OK);
+                } else {
+                    whenCityLoaded(() -> {
+                        if (!hasCoordinates()) {
+                            complete(Section.DAILY, Status.FAILED);
+                            return;
+                        }
+                        String location = city.getLatitude() + "," + city.getLongitude();
+                        enqueue(Section.DAILY, weatherService.getGridWeatherDaily(location, Constants.QWEATHER_API_KEY), (grid, gridCode) -> {
+                            if (grid != null && "200".equals(grid.getCode())) {
+                                builder.daily(grid.getDaily()).updateTime(Section.DAILY, grid.getUpdateTime());
+                                complete(Section.DAILY, Status.OK);
+                            } else {
+                                complete(Section.DAILY, Status.FAILED);
+                            }
+                        });
+                    });
+                }
+            });
+        }
+
+        /**
+         * 24小时预报，主API失败时使用格点API
+         */
+        private void fetchHourly() {
+            enqueue(Section.HOURLY, weatherService.getWeather24h(locationId, Constants.QWEATHER_API_KEY), (body, code) -> {
+                if (body != null && "200".equals(body.getCode())) {
+                    builder.hourly(body.getHourly()).updateTime(Section.HOURLY, body.getUpdateTime());
+                    complete(Section.HOURLY, Status.OK);
+                } else {
+                    whenCityLoaded(() -> {
+                        if (!hasCoordinates()) {
+                            complete(Section.HOURLY, Status.FAILED);
+                            return;
+                        }
+                        String location = city.getLatitude() + "," + city.getLongitude();
+                        enqueue(Section.HOURLY, weatherService.getGridWeatherHourly(location, Constants.QWEATHER_API_KEY), (grid, gridCode) -> {
+                            if (grid != null && "200".equals(grid.getCode())) {
+                                builder.hourly(grid.getHourly()).updateTime(Section.HOURLY, grid.getUpdateTime());
+                                complete(Section.HOURLY, Status.OK);
+                            } else {
+                                complete(Section.HOURLY, Status.FAILED);
+                            }
+                        });
+                    });
+                }
+            });
+        }
+
+        /**
+         * 空气质量，主API失败时通过经纬度获取（没有经纬度时失败）
+         */
+        private void fetchAirQuality() {
+            enqueue(Section.AIR, weatherService.getAirQuality(locationId, Constants.QWEATHER_API_KEY), (body, code) -> {
+                if (body != null && "200".equals(body.getCode())) {
+                    builder.airQuality(body).updateTime(Section.AIR, body.getUpdateTime());
+                    complete(Section.AIR, Status.OK);
+                } else {
+                    whenCityLoaded(() -> {
+                        if (hasCoordinates()) {
+                            fetchAirQualityByCoordinates(city.getLatitude(), city.getLongitude());
+                        } else {
+                            complete(Section.AIR, Status.FAILED);
+                        }
+                    });
+                }
+            });
+        }
+
+        private void fetchAirQualityByCoordinates(String latitude, String longitude) {
+            enqueue(Section.AIR, weatherService.getAirQualityByCoordinates(latitude, longitude,
+                    Constants.QWEATHER_API_KEY, "zh"), (body, code) -> {
+                if (body != null) {
+                    builder.airQuality(body).updateTime(Section.AIR, body.getUpdateTime());
+                    complete(Section.AIR, Status.OK);
+                } else {
+                    complete(Section.AIR, Status.FAILED);
+                }
+            });
+        }
+
+        private void fetchSun() {
+            if (!hasCoordinates()) {
+                complete(Section.SUN, Status.SKIPPED);
+                return;
+            }
+            // 注意：和风天气API要求格式为"经度,纬度"（lon,lat）
+            String location = city.getLongitude() + "," + city.getLatitude();
+            String date = DateUtils.formatDateYYYYMMDD(DateUtils.getCurrentDate());
+            enqueue(Section.SUN, weatherService.getSunriseSunset(location, Constants.QWEATHER_API_KEY, date), (body, code) -> {
+                if (body != null && "200".equals(body.getCode())) {
+                    builder.sun(body).updateTime(Section.SUN, body.getUpdateTime());
+                    complete(Section.SUN, Status.OK);
+                } else {
+                    complete(Section.SUN, Status.FAILED);
+                }
+            });
+        }
+
+        /**
+         * 太阳辐射预报：hours=1, interval=60，只取下一个小时的数据
+         */
+        private void fetchSolarRadiation() {
+            if (!hasCoordinates()) {
+                complete(Section.SOLAR, Status.SKIPPED);
+                return;
+            }
+            enqueue(Section.SOLAR, weatherService.getSolarRadiation(city.getLatitude(), city.getLongitude(), 1, 60,
+                    Constants.QWEATHER_API_KEY), (body, code) -> {
+                if (body != null && body.getForecasts() != null && !body.getForecasts().isEmpty()) {
+                    builder.solarForecast(body.getForecasts().get(0));
+                    complete(Section.SOLAR, Status.OK);
+                } else {
+                    complete(Section.SOLAR, Status.FAILED);
+                }
+            });
+        }
+
+        /**
+         * 分钟级降水
+         */
+        private void fetchMinutely() {
+            if (!hasCoordinates()) {
+                complete(Section.MINUTELY, Status.SKIPPED);
+                return;
+            }
+            // 注意：和风天气API要求格式为"经度,纬度"（lon,lat），不是"纬度,经度"
+            String location = city.getLongitude() + "," + city.getLatitude();
+            enqueue(Section.MINUTELY, weatherService.getMinutelyPrecipitation(location, Constants.QWEATHER_API_KEY, "zh"), (body, code) -> {
+                if (code == -1) {
+                    complete(Section.MINUTELY, Status.FAILED);
+                    return;
+                }
+                if (body != null && "200".equals(body.getCode())) {
+                    builder.minutely(body).updateTime(Section.MINUTELY, body.getUpdateTime());
+                    complete(Section.MINUTELY, Status.OK);
+                    return;
+                }
+                // 返回错误码时也交给UI，用于显示具体的提示信息
+                MinutelyResponse errorResponse = new MinutelyResponse();
+                errorResponse.setCode(body != null ? body.getCode() : String.valueOf(code));
+                builder.minutely(errorResponse);
+                complete(Section.MINUTELY, Status.FAILED);
+            });
+        }
+
+        // ==================== 工具方法 ====================
+
+        private boolean hasCoordinates() {
+            return city != null && city.getLatitude() != null && city.getLongitude() != null &&
+                    !city.getLatitude().isEmpty() && !city.getLongitude().isEmpty();
+        }
+
+        /**
+         * 发出section的一个请求（主API或备用方案）
+         * 超过REQUEST_TIMEOUT_MS未返回时取消并按失败回调；section已结束（如整体超时）时丢弃结果，不写入builder
+         */
+        private <T> void enqueue(Section section, Call<T> call, ResultCallback<T> resultCallback) {
+            calls.add(call);
+            boolean[] done = new boolean[1];
+            mainHandler.postAtTime(() -> {
+                if (!done[0]) {
+                    done[0] = true;
+                    call.cancel();
+                    if (pending.contains(section)) {
+                        resultCallback.onResult(null, -1);
+                    }
+                }
+            }, this, SystemClock.uptimeMillis() + REQUEST_TIMEOUT_MS);
+            call.enqueue(new retrofit2.Callback<T>() {
+                @Override
+                public void onResponse(Call<T> c, Response<T> response) {
+                    long receivedAt = response.raw().receivedResponseAtMillis();
+                    runOnMain(() -> {
+                        if (done[0] || !pending.contains(section)) {
+                            return;
+                        }
+                        done[0] = true;
+                        currentReceivedAt = receivedAt;
+                        resultCallback.onResult(response.isSuccessful() ? response.body() : null, response.code());
+                        currentReceivedAt = 0;
+                    });
+                }
+
+                @Override
+                public void onFailure(Call<T> c, Throwable t) {
+                    runOnMain(() -> {
+                        if (done[0] || !pending.contains(section)) {
+                            return;
+                        }
+                        done[0] = true;
+                        resultCallback.onResult(null, -1);
+                    });
+                }
+            });
+        }
+
+        private void runOnMain(Runnable action) {
+            Runnable guarded = () -> {
+                if (!finished) {
+                    action.run();
+                }
+            };
+            if (Looper.myLooper() == Looper.getMainLooper()) {
+                guarded.run();
+            } else {
+                mainHandler.post(guarded);
+            }
+        }
+
+        private void complete(Section section, Status status) {
+            if (finished || !pending.remove(section)) {
+                return;
+            }
+            builder.status(section, status);
+            if (status == Status.OK && currentReceivedAt > 0) {
+                builder.receivedAt(section, currentReceivedAt);
+            }
+            if (pending.isEmpty()) {
+                deliver();
+            }
+        }
+
+        private void onGlobalTimeout() {
+            if (finished) {
+                return;
+            }
+            for (Section section : pending) {
+                builder.status(section, Status.TIMEOUT);
+            }
+            pending.clear();
+            deliver();
+        }
+
+        private void deliver() {
+            finished = true;
+            cleanup();
+            WeatherBundle bundle = builder.build(SystemClock.elapsedRealtime() - startTime);
+            Log.d(TAG, "loaded " + bundle);
+            snapshotStore.saveAsync(bundle).exceptionally(error -> {
+                Log.e(TAG, "保存快照失败: " + locationId, error);
+                return null;
+            });
+            callback.onLoaded(bundle);
+        }
+
+        private void cleanup() {
+            mainHandler.removeCallbacksAndMessages(this);
+            for (Call<?> call : calls) {
+                call.cancel();
+            }
+        }
+    }
+}
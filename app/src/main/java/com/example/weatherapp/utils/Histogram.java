@@ -0,0 +1,74 @@
+package com.example.weatherapp.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 固定桶直方图，线程安全
+ * 网络阶段耗时（NetworkMetrics）和数据库语句耗时（QueryProfiler）共用
+ */
+public final class Histogram {
+    private final long[] bounds;
+    private final AtomicLongArray buckets;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong totalMillis = new AtomicLong();
+    private final AtomicLong maxMillis = new AtomicLong();
+
+    /**
+     * @param bounds 桶上界（毫秒，递增），最后一个桶收集所有更大的值
+     */
+    public Histogram(long[] bounds) {
+        this.bounds = bounds;
+        this.buckets = new AtomicLongArray(bounds.length + 1);
+    }
+
+    public void record(long millis) {
+        int index = 0;
+        while (index < bounds.length && millis > bounds[index]) {
+            index++;
+        }
+        buckets.incrementAndGet(index);
+        count.incrementAndGet();
+        totalMillis.addAndGet(millis);
+        long max;
+        do {
+            max = maxMillis.get();
+        } while (millis > max && !maxMillis.compareAndSet(max, millis));
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getTotalMillis() {
+        return totalMillis.get();
+    }
+
+    public long getAverageMillis() {
+        long n = count.get();
+        return n == 0 ? 0 : totalMillis.get() / n;
+    }
+
+    public long getMaxMillis() {
+        return maxMillis.get();
+    }
+
+    /**
+     * 估算分位数（返回所在桶的上界，落在最后一个桶时返回最大值）
+     */
+    public long percentile(double p) {
+        long n = count.get();
+        if (n == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(n * p);
+        long seen = 0;
+        for (int i = 0; i < bounds.length; i++) {
+            seen += buckets.get(i);
+            if (seen >= target) {
+                return Math.min(bounds[i], maxMillis.get());
+            }
+        }
+        return maxMillis.get();
+    }
+}
@@ -3,10 +3,16 @@ package com.example.weatherapp.utils;
 import android.content.Context;
 import android.content.SharedPreferences;
 
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
 public class SharedPrefsUtils {
 
     private static final String PREF_NAME = "weather_prefs";
     private static final String KEY_DEFAULT_CITY = "default_city";
+    private static final String KEY_QUERY_PROFILER = "query_profiler";
+    private static final String KEY_UNRESOLVED_LOCATION_IDS = "unresolved_location_ids";
 
     public static void saveDefaultCity(Context context, String cityName) {
         SharedPreferences sp = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
@@ -17,4 +23,32 @@ public class SharedPrefsUtils {
         SharedPreferences sp = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
         return sp.getString(KEY_DEFAULT_CITY, null);
     }
+
+    /**
+     * 是否开启数据库语句耗时统计（QueryProfiler），未设置时使用defaultValue
+     */
+    public static boolean isQueryProfilerEnabled(Context context, boolean defaultValue) {
+        SharedPreferences sp = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        return sp.getBoolean(KEY_QUERY_PROFILER, defaultValue);
+    }
+
+    public static void setQueryProfilerEnabled(Context context, boolean enabled) {
+        SharedPreferences sp = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        sp.edit().putBoolean(KEY_QUERY_PROFILER, enabled).apply();
+    }
+
+    /**
+     * GeoAPI查不到经纬度的城市，补全经纬度时跳过
+     */
+    public static Set<String> getUnresolvedLocationIds(Context context) {
+        SharedPreferences sp = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        return new HashSet<>(sp.getStringSet(KEY_UNRESOLVED_LOCATION_IDS, new HashSet<>()));
+    }
+
+    public static void addUnresolvedLocationIds(Context context, Collection<String> locationIds) {
+        Set<String> ids = getUnresolvedLocationIds(context);
+        ids.addAll(locationIds);
+        SharedPreferences sp = context.getSharedPreferences(PREF_NAME, Context.MODE_PRIVATE);
+        sp.edit().putStringSet(KEY_UNRESOLVED_LOCATION_IDS, ids).apply();
+    }
 }
@@ -20,9 +20,9 @@ public class WeatherIconUtils {
     }
 
     /**
-     * 根据图标代码获取drawable资源ID
+     * 根据图标代码获取drawable资源ID，没有对应图标时返回备用或默认图标
      */
-    private static int getIconResourceId(Context context, String iconCode) {
+    public static int getIconResourceId(Context context, String iconCode) {
         if (iconCode == null || iconCode.isEmpty()) {
             return getDefaultIcon(context);
         }
@@ -0,0 +1,509 @@
+package com.example.weatherapp.views;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.DashPathEffect;
+import android.graphics.Paint;
+import android.graphics.drawable.Drawable;
+import android.util.AttributeSet;
+import android.view.GestureDetector;
+import android.view.MotionEvent;
+import android.view.ScaleGestureDetector;
+import android.view.View;
+import android.view.ViewParent;
+import android.widget.OverScroller;
+
+import com.example.weatherapp.utils.WeatherIconUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 逐小时预报时间轴View
+ * 在同一个View中绘制温度折线、温度、天气图标和时间，自身处理横向滑动和惯性滑动，
+ * 不再需要两个HorizontalScrollView同步滚动，也不再为每个小时创建子View
+ * 坐标、文字和图标在设置数据或尺寸变化时准备好，onDraw只绘制可见范围内的小时，不分配对象
+ * 双指缩放：最小缩放时全部小时刚好占满View宽度；折线按内容宽度用LTTB降采样（每MIN_POINT_SPACING_DP
+ * 最多一个点，保留最高和最低温度），温度、图标和时间放不下时每隔几个小时显示一个
+ */
+public class HourlyTimelineView extends View {
+    /** 每个小时的宽度（dp） */
+    public static final int DEFAULT_STEP_DP = 100;
+
+    private static final String ZERO_LABEL = "0°";
+    private static final float POINT_RADIUS = 6f;
+    private static final String NO_TIME = "--";
+    /**
+     * 折线相邻两点的最小间距（dp），更密时降采样
+     * 72小时缩放到占满手机宽度时每小时约5dp，此时按这个间距只保留约一半的点
+     */
+    private static final int MIN_POINT_SPACING_DP = 8;
+    /** 用于估算标注宽度的最宽文字 */
+    private static final String WIDEST_TEMP_LABEL = "-00°";
+    private static final String WIDEST_TIME_LABEL = "00:00";
+
+    private int[] temperatures = new int[0];
+    /** 各小时的温度文字、时间文字和天气图标，与temperatures一一对应 */
+    private String[] tempLabels = new String[0];
+    private String[] timeLabels = new String[0];
+    private Drawable[] icons = new Drawable[0];
+    /** 图标按代码缓存，同一种天气只加载一次 */
+    private final Map<String, Drawable> iconCache = new HashMap<>();
+
+    /** 各点的纵坐标（横坐标由下标计算） */
+    private float[] pointY = new float[0];
+    /** 降采样后折线经过的小时下标（升序），折线各段的端点（每段4个值） */
+    private int[] linePoints = new int[0];
+    private float[] segments = new float[0];
+    /** 生成linePoints时的目标点数，不变时只更新坐标 */
+    private int lineThreshold = -1;
+
+    private Paint linePaint;
+    private Paint pointPaint;
+    private Paint textPaint;
+    private Paint zeroLabelPaint;
+    private Paint zeroLinePaint;
+    private Paint timePaint;
+    private int padding = 40;
+    private int chartHeight;
+    private int minTemp;
+    private int maxTemp;
+    private int tempRange;
+
+    // 以下尺寸在init中由dp换算为px
+    private int baseStepPx;
+    private int minPointSpacingPx;
+    /** 相邻两个标注（温度、图标、时间）中心的最小距离 */
+    private float labelSpacingPx;
+    private int chartAreaPx;
+    private int bottomTextSpacePx;
+    private int labelBottomPx;
+    private int zeroLabelOffsetPx;
+    private int zeroLabelLeftPx;
+    private int zeroLabelMarginPx;
+    private int iconTopPx;
+    private int iconSizePx;
+    private int timeBaselinePx;
+    private int viewHeightPx;
+
+    /** 0度线的位置，是否显示0度标注 */
+    private float zeroY;
+    private boolean zeroLabelVisible;
+
+    /** 缩放比例，在[minZoom, 1]之间；stepPx = baseStepPx * zoom */
+    private float zoom = 1f;
+    private float minZoom = 1f;
+    private float stepPx;
+    /** 每隔几个小时显示一次标注 */
+    private int labelEvery = 1;
+
+    private OverScroller scroller;
+    private GestureDetector gestureDetector;
+    private ScaleGestureDetector scaleDetector;
+
+    public HourlyTimelineView(Context context) {
+        super(context);
+        init(context);
+    }
+
+    public HourlyTimelineView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        init(context);
+    }
+
+    public HourlyTimelineView(Context context, AttributeSet attrs, int defStyleAttr) {
+        super(context, attrs, defStyleAttr);
+        init(context);
+    }
+
+    private void init(Context context) {
+        baseStepPx = dpToPx(DEFAULT_STEP_DP);
+        stepPx = baseStepPx;
+        minPointSpacingPx = dpToPx(MIN_POINT_SPACING_DP);
+        chartAreaPx = dpToPx(220);
+        bottomTextSpacePx = dpToPx(40);
+        labelBottomPx = dpToPx(10);
+        zeroLabelOffsetPx = dpToPx(10);
+        zeroLabelLeftPx = dpToPx(35);
+        zeroLabelMarginPx = dpToPx(20);
+        iconTopPx = chartAreaPx + dpToPx(16);
+        iconSizePx = dpToPx(32);
+        timeBaselinePx = iconTopPx + iconSizePx + dpToPx(20);
+        viewHeightPx = timeBaselinePx + dpToPx(12);
+
+        // 温度折线画笔（分段绘制，圆角端点使各段连接平滑）
+        linePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        linePaint.setColor(0xFF4A90E2);
+        linePaint.setStyle(Paint.Style.STROKE);
+        linePaint.setStrokeWidth(4f);
+        linePaint.setStrokeCap(Paint.Cap.ROUND);
+
+        // 温度点画笔
+        pointPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        pointPaint.setColor(0xFF4A90E2);
+        pointPaint.setStyle(Paint.Style.FILL);
+
+        // 温度文字画笔
+        textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        textPaint.setColor(Color.BLACK);
+        textPaint.setTextSize(40f);
+        textPaint.setTextAlign(Paint.Align.CENTER);
+
+        // 0度标注画笔（左对齐、字体较小）
+        zeroLabelPaint = new Paint(textPaint);
+        zeroLabelPaint.setTextSize(32f);
+        zeroLabelPaint.setTextAlign(Paint.Align.LEFT);
+
+        // 0度线画笔
+        zeroLinePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        zeroLinePaint.setColor(0xFF999999);
+        zeroLinePaint.setStyle(Paint.Style.STROKE);
+        zeroLinePaint.setStrokeWidth(2f);
+        zeroLinePaint.setPathEffect(new DashPathEffect(new float[]{10, 5}, 0));
+
+        // 时间文字画笔（12sp）
+        timePaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        timePaint.setColor(Color.BLACK);
+        timePaint.setTextSize(12 * getResources().getDisplayMetrics().scaledDensity);
+        timePaint.setTextAlign(Paint.Align.CENTER);
+
+        labelSpacingPx = Math.max(iconSizePx, Math.max(textPaint.measureText(WIDEST_TEMP_LABEL),
+                timePaint.measureText(WIDEST_TIME_LABEL))) + dpToPx(8);
+
+        scroller = new OverScroller(context);
+        gestureDetector = new GestureDetector(context, new GestureDetector.SimpleOnGestureListener() {
+            @Override
+            public boolean onDown(MotionEvent e) {
+                scroller.forceFinished(true);
+                return true;
+            }
+
+            @Override
+            public boolean onScroll(MotionEvent e1, MotionEvent e2, float distanceX, float distanceY) {
+                if (scaleDetector.isInProgress()) {
+                    return false;
+                }
+                // 横向拖动时不让外层纵向滚动容器拦截
+                if (Math.abs(distanceX) > Math.abs(distanceY)) {
+                    ViewParent parent = getParent();
+                    if (parent != null) {
+                        parent.requestDisallowInterceptTouchEvent(true);
+                    }
+                }
+                scrollTo(clampScroll(getScrollX() + Math.round(distanceX)), 0);
+                return true;
+            }
+
+            @Override
+            public boolean onFling(MotionEvent e1, MotionEvent e2, float velocityX, float velocityY) {
+                scroller.fling(getScrollX(), 0, -Math.round(velocityX), 0, 0, getMaxScrollX(), 0, 0);
+                postInvalidateOnAnimation();
+                return true;
+            }
+        });
+        scaleDetector = new ScaleGestureDetector(context, new ScaleGestureDetector.SimpleOnScaleGestureListener() {
+            @Override
+            public boolean onScaleBegin(ScaleGestureDetector detector) {
+                ViewParent parent = getParent();
+                if (parent != null) {
+                    parent.requestDisallowInterceptTouchEvent(true);
+                }
+                scroller.forceFinished(true);
+                return true;
+            }
+
+            @Override
+            public boolean onScale(ScaleGestureDetector detector) {
+                setZoom(zoom * detector.getScaleFactor(), detector.getFocusX());
+                return true;
+            }
+        });
+    }
+
+    /**
+     * 设置逐小时数据，三个数组长度相同
+     * @param temps 温度
+     * @param iconCodes 和风天气图标代码
+     * @param times 时间文字，为null的显示"--"
+     */
+    public void setHourly(int[] temps, String[] iconCodes, String[] times) {
+        temperatures = temps != null ? temps.clone() : new int[0];
+        int count = temperatures.length;
+        tempLabels = new String[count];
+        timeLabels = new String[count];
+        icons = new Drawable[count];
+        for (int i = 0; i < count; i++) {
+            tempLabels[i] = temperatures[i] + "°";
+            String time = times != null && i < times.length ? times[i] : null;
+            timeLabels[i] = time != null ? time : NO_TIME;
+            icons[i] = iconOf(iconCodes != null && i < iconCodes.length ? iconCodes[i] : null);
+        }
+        pointY = new float[count];
+        lineThreshold = -1;
+        calculateRange();
+        updateZoomRange();
+        computePoints();
+        scroller.forceFinished(true);
+        scrollTo(clampScroll(getScrollX()), 0);
+        invalidate();
+    }
+
+    private Drawable iconOf(String code) {
+        String key = code != null ? code : "";
+        Drawable icon = iconCache.get(key);
+        if (icon == null) {
+            icon = getContext().getDrawable(WeatherIconUtils.getIconResourceId(getContext(), code));
+            iconCache.put(key, icon);
+        }
+        return icon;
+    }
+
+    /**
+     * 计算温度范围，确保0度线始终在可见范围内
+     */
+    private void calculateRange() {
+        if (temperatures.length == 0) {
+            minTemp = 0;
+            maxTemp = 30;
+            tempRange = 30;
+            return;
+        }
+
+        int actualMin = Integer.MAX_VALUE;
+        int actualMax = Integer.MIN_VALUE;
+        for (int temp : temperatures) {
+            if (temp < actualMin) actualMin = temp;
+            if (temp > actualMax) actualMax = temp;
+        }
+
+        int margin = 5; // 上下留白
+        if (actualMin >= 0) {
+            // 所有温度都 >= 0，0度线显示在底部
+            minTemp = 0;
+            maxTemp = actualMax + margin;
+        } else if (actualMax <= 0) {
+            // 所有温度都 <= 0，0度线显示在顶部
+            maxTemp = 0;
+            minTemp = actualMin - margin;
+        } else {
+            // 温度跨越0度
+            minTemp = actualMin - margin;
+            maxTemp = actualMax + margin;
+        }
+
+        tempRange = maxTemp - minTemp;
+        if (tempRange == 0) {
+            tempRange = 1;
+        }
+    }
+
+    @Override
+    protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+        setMeasuredDimension(getDefaultSize(getSuggestedMinimumWidth(), widthMeasureSpec), viewHeightPx);
+    }
+
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        updateZoomRange();
+        computePoints();
+        scrollTo(clampScroll(getScrollX()), 0);
+    }
+
+    // ==================== 缩放 ====================
+
+    /**
+     * 最小缩放为全部小时刚好占满View宽度（不超过1），当前缩放限制在范围内
+     */
+    private void updateZoomRange() {
+        int count = temperatures.length;
+        int width = getWidth();
+        minZoom = count > 0 && width > 0 ? Math.min(1f, (float) width / (count * baseStepPx)) : 1f;
+        zoom = Math.max(minZoom, Math.min(1f, zoom));
+        stepPx = baseStepPx * zoom;
+    }
+
+    /**
+     * 以focusX（View内坐标）为中心缩放，缩放前后焦点处的小时位置不变
+     */
+    private void setZoom(float newZoom, float focusX) {
+        newZoom = Math.max(minZoom, Math.min(1f, newZoom));
+        if (newZoom == zoom) {
+            return;
+        }
+        float focusHour = (getScrollX() + focusX) / stepPx;
+        zoom = newZoom;
+        stepPx = baseStepPx * zoom;
+        computePoints();
+        scrollTo(clampScroll(Math.round(focusHour * stepPx - focusX)), 0);
+        invalidate();
+    }
+
+    /**
+     * 计算各点纵坐标、折线各段、标注间隔和0度线位置，数据、尺寸或缩放变化时调用
+     */
+    private void computePoints() {
+        chartHeight = chartAreaPx - padding * 2 - bottomTextSpacePx; // 底部留空间显示温度文字
+        for (int i = 0; i < temperatures.length; i++) {
+            pointY[i] = calculateY(temperatures[i]);
+        }
+        computeLine();
+        labelEvery = Math.max(1, (int) Math.ceil(labelSpacingPx / stepPx));
+
+        // 确保0度线始终在可见区域内：超出范围时限制在可见区域内
+        float topBound = padding;
+        float bottomBound = chartAreaPx - padding - bottomTextSpacePx;
+        zeroY = Math.max(topBound, Math.min(bottomBound, calculateY(0)));
+        // 标签不超出下边界时才在左侧标注0度
+        zeroLabelVisible = zeroY + zeroLabelOffsetPx <= bottomBound + zeroLabelMarginPx;
+    }
+
+    /**
+     * 按内容宽度降采样折线；目标点数不变时（如缩放幅度很小）只更新线段坐标
+     */
+    private void computeLine() {
+        int threshold = SeriesDownsampler.targetCount(temperatures.length, getContentWidth(), minPointSpacingPx);
+        if (threshold != lineThreshold) {
+            lineThreshold = threshold;
+            linePoints = SeriesDownsampler.lttb(temperatures, threshold);
+            segments = new float[Math.max(0, linePoints.length - 1) * 4];
+        }
+        for (int j = 1; j < linePoints.length; j++) {
+            int s = (j - 1) * 4;
+            segments[s] = pointX(linePoints[j - 1]);
+            segments[s + 1] = pointY[linePoints[j - 1]];
+            segments[s + 2] = pointX(linePoints[j]);
+            segments[s + 3] = pointY[linePoints[j]];
+        }
+    }
+
+    private float pointX(int i) {
+        return stepPx / 2f + i * stepPx;
+    }
+
+    /**
+     * linePoints中横坐标不小于x的第一个位置，都小于x时返回linePoints.length
+     */
+    private int lowerLinePoint(float x) {
+        int low = 0;
+        int high = linePoints.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (pointX(linePoints[mid]) < x) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private float calculateY(int temperature) {
+        float ratio = (float) (maxTemp - temperature) / tempRange;
+        return padding + ratio * chartHeight;
+    }
+
+    // ==================== 滑动 ====================
+
+    @Override
+    public boolean onTouchEvent(MotionEvent event) {
+        boolean scaled = scaleDetector.onTouchEvent(event);
+        return gestureDetector.onTouchEvent(event) || scaled || super.onTouchEvent(event);
+    }
+
+    @Override
+    public void computeScroll() {
+        if (scroller.computeScrollOffset()) {
+            scrollTo(clampScroll(scroller.getCurrX()), 0);
+            postInvalidateOnAnimation();
+        }
+    }
+
+    private int getContentWidth() {
+        return Math.round(temperatures.length * stepPx);
+    }
+
+    private int getMaxScrollX() {
+        return Math.max(0, getContentWidth() - getWidth());
+    }
+
+    private int clampScroll(int x) {
+        return Math.max(0, Math.min(getMaxScrollX(), x));
+    }
+
+    @Override
+    protected int computeHorizontalScrollRange() {
+        return Math.max(getContentWidth(), getWidth());
+    }
+
+    @Override
+    protected int computeHorizontalScrollOffset() {
+        return getScrollX();
+    }
+
+    @Override
+    protected int computeHorizontalScrollExtent() {
+        return getWidth();
+    }
+
+    // ==================== 绘制 ====================
+
+    /**
+     * 画布已按scrollX平移，只绘制与[scrollX, scrollX + width)相交的小时
+     * 标注只画下标为labelEvery整数倍的小时
+     */
+    @Override
+    protected void onDraw(Canvas canvas) {
+        super.onDraw(canvas);
+
+        int count = temperatures.length;
+        if (count == 0) {
+            return;
+        }
+        int left = getScrollX();
+        int right = left + getWidth();
+        int first = Math.max(0, (int) (left / stepPx));
+        int last = Math.min(count - 1, (int) (right / stepPx));
+
+        // 0度基准线
+        canvas.drawLine(left, zeroY, right, zeroY, zeroLinePaint);
+        if (zeroLabelVisible) {
+            canvas.drawText(ZERO_LABEL, padding - zeroLabelLeftPx, zeroY + zeroLabelOffsetPx, zeroLabelPaint);
+        }
+
+        // 温度折线：与可见范围相交的线段（包含伸出左右边界的两段）
+        int firstSegment = Math.max(0, lowerLinePoint(left) - 1);
+        int lastSegment = Math.min(linePoints.length - 2, lowerLinePoint(right));
+        if (lastSegment >= firstSegment) {
+            canvas.drawLines(segments, firstSegment * 4, (lastSegment - firstSegment + 1) * 4, linePaint);
+        }
+        // 温度点只画在折线保留的点上，降采样后也在折线上
+        int lastPoint = Math.min(linePoints.length - 1, lowerLinePoint(right));
+        for (int j = Math.max(0, lowerLinePoint(left) - 1); j <= lastPoint; j++) {
+            int i = linePoints[j];
+            canvas.drawCircle(pointX(i), pointY[i], POINT_RADIUS, pointPaint);
+        }
+
+        float labelY = chartAreaPx - labelBottomPx;
+        int half = iconSizePx / 2;
+        for (int i = first / labelEvery * labelEvery; i <= last; i += labelEvery) {
+            float x = pointX(i);
+            // 温度
+            canvas.drawText(tempLabels[i], x, labelY, textPaint);
+            // 天气图标和时间
+            Drawable icon = icons[i];
+            if (icon != null) {
+                int cx = Math.round(x);
+                icon.setBounds(cx - half, iconTopPx, cx + half, iconTopPx + iconSizePx);
+                icon.draw(canvas);
+            }
+            canvas.drawText(timeLabels[i], x, timeBaselinePx, timePaint);
+        }
+    }
+
+    private int dpToPx(int dp) {
+        float density = getResources().getDisplayMetrics().density;
+        return Math.round(dp * density);
+    }
+}
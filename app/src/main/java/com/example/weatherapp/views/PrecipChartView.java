@@ -4,19 +4,47 @@ import android.content.Context;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.RecordingCanvas;
+import android.graphics.Rect;
+import android.graphics.RenderNode;
 import android.util.AttributeSet;
+import android.util.SparseArray;
 import android.view.View;
+import android.view.ViewParent;
+import android.view.ViewTreeObserver;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Locale;
 
 /**
  * 降雨量柱状图View
- * 显示未来2小时降雨量，每5分钟一个柱子，支持横向滑动
+ * 显示未来2小时降雨量，支持横向滑动
+ * 横轴按分钟划分格子，每个数据占step个格子（分钟级降水每5分钟一个数据，画成5格宽的柱子）
+ * 只绘制可见范围（前后各多留一屏）内的柱子，滑出已绘制范围时才重绘；
+ * 柱子按颜色分组绘制，网格线和基线、时间标签分别录制为RenderNode，数据或尺寸变化时才重新录制
  */
 public class PrecipChartView extends View {
-    private List<Float> precipitations = new ArrayList<>();
-    private List<String> timeLabels = new ArrayList<>();
+    /** 柱子颜色，按降雨强度从低到高：无雨、微量、小雨、中雨 */
+    private static final int[] BAR_COLORS = {0xFFE0E0E0, 0xFFBBDEFB, 0xFF64B5F6, 0xFF2196F3};
+
+    /** 每GRID_SLOTS个格子（10分钟）一条网格线 */
+    private static final int GRID_SLOTS = 10;
+
+    private float[] precipitations = new float[0];
+    /** 每个数据占的格子数 */
+    private int step = 1;
+    /** 时间标签，按数据下标稀疏存放 */
+    private SparseArray<String> timeLabels = new SparseArray<>();
+    /** 各柱子的颜色分组（BAR_COLORS的下标）和降雨量文字（无雨时为null） */
+    private byte[] barColors = new byte[0];
+    private String[] valueLabels = new String[0];
+    /** 各颜色分组中的柱子下标，升序 */
+    private int[][] colorGroups = new int[BAR_COLORS.length][0];
+    /** 降雨量文字缓存，同一数值只格式化一次 */
+    private final SparseArray<String> valueLabelCache = new SparseArray<>();
+
+    private float[] barTops = new float[0];
+    private float[] valueLabelYs = new float[0];
+
     private Paint barPaint;
     private Paint textPaint;
     private Paint timeTextPaint;
@@ -24,10 +52,35 @@ public class PrecipChartView extends View {
     private Paint baselinePaint;
     private int padding = 40;
     private int chartHeight;
-    private int chartWidth;
     private float maxPrecip = 0;
-    private int itemWidth = 20; // 每个柱子的宽度（dp转px后，更密集）
-    private int barSpacing = 2; // 柱子之间的间距（dp转px后，更密集）
+    private int itemWidth = 20; // 每个格子的宽度（dp，更密集）
+    private int barSpacing = 2; // 柱子之间的间距（dp，更密集）
+
+    // 以下尺寸在init中由dp换算为px
+    private int itemWidthPx;
+    private int barSpacingPx;
+    private int slotPx;
+    /** 一个数据（step个格子）的宽度 */
+    private int valueWidthPx;
+    private int bottomSpacePx;
+    private int valueLabelGapPx;
+    private int valueLabelBelowPx;
+    private int timeLabelBottomPx;
+    private int viewHeightPx;
+
+    /** 网格线（在柱子下方）和基线、时间标签（在柱子上方） */
+    private final RenderNode gridLayer = new RenderNode("precipGrid");
+    private final RenderNode overlayLayer = new RenderNode("precipOverlay");
+    private boolean layersDirty = true;
+
+    /** 当前绘制内容覆盖的横坐标范围 */
+    private final Rect clipBounds = new Rect();
+    private int drawnLeft;
+    private int drawnRight;
+    /** 最近一次绘制的柱子下标范围 */
+    int drawnFirst;
+    int drawnLast = -1;
+    private final ViewTreeObserver.OnScrollChangedListener scrollListener = this::onParentScrolled;
 
     public PrecipChartView(Context context) {
         super(context);
@@ -45,6 +98,16 @@ public class PrecipChartView extends View {
     }
 
     private void init() {
+        itemWidthPx = dpToPx(itemWidth);
+        barSpacingPx = dpToPx(barSpacing);
+        slotPx = itemWidthPx + barSpacingPx;
+        valueWidthPx = slotPx;
+        bottomSpacePx = dpToPx(10);
+        valueLabelGapPx = dpToPx(4);
+        valueLabelBelowPx = dpToPx(20);
+        timeLabelBottomPx = dpToPx(5);
+        viewHeightPx = dpToPx(200);
+
         // 柱子画笔
         barPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         barPaint.setStyle(Paint.Style.FILL);
@@ -52,7 +115,7 @@ public class PrecipChartView extends View {
         // 降雨量文字画笔
         textPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         textPaint.setColor(Color.WHITE);
-        textPaint.setTextSize(28f);
+        textPaint.setTextSize(24f);
         textPaint.setTextAlign(Paint.Align.CENTER);
 
         // 时间文字画笔（增大字体）
@@ -76,11 +139,18 @@ public class PrecipChartView extends View {
 
     /**
      * 设置降雨量数据和时间标签
+     * @param precipts 降雨量，按原始分辨率（不需要展开为每分钟一个）
+     * @param step     每个数据占的格子数（分钟数）
+     * @param times    时间标签，键为precipts的下标，只需要放有标签的数据
      */
-    public void setPrecipitations(List<Float> precipts, List<String> times) {
-        this.precipitations = precipts != null ? new ArrayList<>(precipts) : new ArrayList<>();
-        this.timeLabels = times != null ? new ArrayList<>(times) : new ArrayList<>();
+    public void setPrecipitations(float[] precipts, int step, SparseArray<String> times) {
+        this.precipitations = precipts != null ? precipts.clone() : new float[0];
+        this.step = Math.max(1, step);
+        this.timeLabels = times != null ? times.clone() : new SparseArray<>();
+        valueWidthPx = this.step * slotPx;
         calculateMaxPrecip();
+        classifyBars();
+        computeBars();
         requestLayout();
         invalidate();
     }
@@ -90,7 +160,7 @@ public class PrecipChartView extends View {
      */
     private void calculateMaxPrecip() {
         maxPrecip = 0;
-        for (Float precip : precipitations) {
+        for (float precip : precipitations) {
             if (precip > maxPrecip) {
                 maxPrecip = precip;
             }
@@ -104,15 +174,58 @@ public class PrecipChartView extends View {
         }
     }
 
+    /**
+     * 按降雨强度给柱子分组，生成降雨量文字
+     */
+    private void classifyBars() {
+        int count = precipitations.length;
+        barColors = new byte[count];
+        valueLabels = new String[count];
+        int[] groupSizes = new int[BAR_COLORS.length];
+        for (int i = 0; i < count; i++) {
+            float precip = precipitations[i];
+            int color;
+            if (precip > 0.5) {
+                color = 3; // 中雨
+            } else if (precip > 0.1) {
+                color = 2; // 小雨
+            } else if (precip > 0) {
+                color = 1; // 微量
+            } else {
+                color = 0; // 无雨
+            }
+            barColors[i] = (byte) color;
+            groupSizes[color]++;
+            valueLabels[i] = precip > 0 ? valueLabel(precip) : null;
+        }
+        colorGroups = new int[BAR_COLORS.length][];
+        for (int c = 0; c < BAR_COLORS.length; c++) {
+            colorGroups[c] = new int[groupSizes[c]];
+            groupSizes[c] = 0;
+        }
+        for (int i = 0; i < count; i++) {
+            int c = barColors[i];
+            colorGroups[c][groupSizes[c]++] = i;
+        }
+    }
+
+    private String valueLabel(float precip) {
+        int key = Float.floatToIntBits(precip);
+        String label = valueLabelCache.get(key);
+        if (label == null) {
+            label = String.format(Locale.getDefault(), "%.1f", precip);
+            valueLabelCache.put(key, label);
+        }
+        return label;
+    }
+
     @Override
     protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
         int width = MeasureSpec.getSize(widthMeasureSpec);
-        int height = dpToPx(200); // 固定高度200dp
+        int height = viewHeightPx; // 固定高度200dp
 
         // 计算内容宽度（每个柱子宽度 + 间距）
-        int itemWidthPx = dpToPx(itemWidth);
-        int barSpacingPx = dpToPx(barSpacing);
-        int contentWidth = precipitations.size() * (itemWidthPx + barSpacingPx);
+        int contentWidth = precipitations.length * valueWidthPx;
         if (contentWidth < width) {
             contentWidth = width; // 至少与屏幕宽度相同
         }
@@ -120,86 +233,195 @@ public class PrecipChartView extends View {
         setMeasuredDimension(contentWidth, height);
     }
 
+    @Override
+    protected void onSizeChanged(int w, int h, int oldw, int oldh) {
+        super.onSizeChanged(w, h, oldw, oldh);
+        computeBars();
+    }
+
+    /**
+     * 计算柱子顶部和降雨量文字的位置，数据或尺寸变化时调用
+     */
+    private void computeBars() {
+        layersDirty = true;
+        int height = getHeight();
+        if (height == 0) {
+            return;
+        }
+        chartHeight = height - padding * 2 - bottomSpacePx; // 底部留空间显示时间
+        float barBottom = padding + chartHeight;
+        int count = precipitations.length;
+        barTops = new float[count];
+        valueLabelYs = new float[count];
+        for (int i = 0; i < count; i++) {
+            float barHeight = (precipitations[i] / maxPrecip) * chartHeight;
+            barTops[i] = barBottom - barHeight;
+            float textY = barTops[i] - valueLabelGapPx;
+            if (textY < padding) {
+                textY = barBottom + valueLabelBelowPx; // 如果空间不够，显示在柱子下方
+            }
+            valueLabelYs[i] = textY;
+        }
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        getViewTreeObserver().addOnScrollChangedListener(scrollListener);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        getViewTreeObserver().removeOnScrollChangedListener(scrollListener);
+        gridLayer.discardDisplayList();
+        overlayLayer.discardDisplayList();
+        layersDirty = true;
+        super.onDetachedFromWindow();
+    }
+
+    /**
+     * 外层滚动后，可见范围超出已绘制的范围时重绘
+     */
+    void onParentScrolled() {
+        ViewParent parent = getParent();
+        if (!(parent instanceof View)) {
+            return;
+        }
+        View scroller = (View) parent;
+        int visibleLeft = Math.max(0, scroller.getScrollX() - getLeft());
+        int visibleRight = Math.min(getWidth(), scroller.getScrollX() - getLeft() + scroller.getWidth());
+        if (visibleLeft < drawnLeft || visibleRight > drawnRight) {
+            invalidate();
+        }
+    }
+
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
 
-        if (precipitations.isEmpty()) {
+        if (precipitations.length == 0) {
             return;
         }
 
-        chartWidth = getWidth();
-        chartHeight = getHeight() - padding * 2 - dpToPx(10); // 底部留空间显示时间
+        // 绘制范围：画布裁剪区域与外层滚动容器可见区域（前后各多留一屏）的交集
+        canvas.getClipBounds(clipBounds);
+        int left = clipBounds.left;
+        int right = clipBounds.right;
+        ViewParent parent = getParent();
+        if (parent instanceof View) {
+            View scroller = (View) parent;
+            int visibleLeft = scroller.getScrollX() - getLeft();
+            left = Math.max(left, visibleLeft - scroller.getWidth());
+            right = Math.min(right, visibleLeft + 2 * scroller.getWidth());
+        }
+        drawnLeft = left;
+        drawnRight = right;
+        int first = Math.max(0, left / valueWidthPx);
+        int last = Math.min(precipitations.length - 1, right / valueWidthPx);
+        drawnFirst = first;
+        drawnLast = last;
+
+        boolean useLayers = canvas.isHardwareAccelerated();
+        if (useLayers && layersDirty) {
+            recordLayers();
+        }
 
-        // 绘制网格线（每10分钟一条，即每10个柱子）
-        drawGridLines(canvas);
+        // 网格线（每10分钟一条，即每10个柱子）
+        if (useLayers) {
+            canvas.drawRenderNode(gridLayer);
+        } else {
+            drawGridLines(canvas);
+        }
 
-        // 绘制柱状图
-        drawBars(canvas);
+        // 柱状图
+        drawBars(canvas, first, last);
 
-        // 绘制底部基线（明显的黑线）
-        drawBaseline(canvas);
+        // 底部基线（明显的黑线）和时间标签
+        if (useLayers) {
+            canvas.drawRenderNode(overlayLayer);
+        } else {
+            drawBaseline(canvas);
+            drawTimeLabels(canvas);
+        }
+    }
 
-        // 绘制时间标签
-        drawTimeLabels(canvas);
+    private void recordLayers() {
+        int width = getWidth();
+        int height = getHeight();
+        gridLayer.setPosition(0, 0, width, height);
+        RecordingCanvas grid = gridLayer.beginRecording(width, height);
+        try {
+            drawGridLines(grid);
+        } finally {
+            gridLayer.endRecording();
+        }
+        overlayLayer.setPosition(0, 0, width, height);
+        RecordingCanvas overlay = overlayLayer.beginRecording(width, height);
+        try {
+            drawBaseline(overlay);
+            drawTimeLabels(overlay);
+        } finally {
+            overlayLayer.endRecording();
+        }
+        layersDirty = false;
     }
 
     /**
-     * 绘制网格线（每10分钟一条，即每10个柱子）
+     * 绘制网格线（每10分钟一条，即每10个格子）
      */
     private void drawGridLines(Canvas canvas) {
-        int itemWidthPx = dpToPx(itemWidth);
-        int barSpacingPx = dpToPx(barSpacing);
-
-        // 每10个柱子（10分钟）绘制一条竖线
-        for (int i = 0; i < precipitations.size(); i += 10) {
-            float x = itemWidthPx / 2f + i * (itemWidthPx + barSpacingPx);
+        int slots = precipitations.length * step;
+        for (int i = 0; i < slots; i += GRID_SLOTS) {
+            float x = itemWidthPx / 2f + i * slotPx;
             canvas.drawLine(x, padding, x, padding + chartHeight, gridLinePaint);
         }
     }
 
     /**
-     * 绘制柱状图
+     * 绘制first..last之间的柱子和降雨量文字，同一颜色的柱子一起绘制，减少画笔切换
      */
-    private void drawBars(Canvas canvas) {
-        int itemWidthPx = dpToPx(itemWidth);
-        int barSpacingPx = dpToPx(barSpacing);
-        int barWidth = itemWidthPx - barSpacingPx;
-
-        for (int i = 0; i < precipitations.size(); i++) {
-            float precip = precipitations.get(i);
-            float x = i * (itemWidthPx + barSpacingPx) + barSpacingPx / 2f;
-
-            // 计算柱子高度
-            float barHeight = (precip / maxPrecip) * chartHeight;
-            float barTop = padding + chartHeight - barHeight;
-            float barBottom = padding + chartHeight;
+    private void drawBars(Canvas canvas, int first, int last) {
+        int barWidth = valueWidthPx - barSpacingPx;
+        float barBottom = padding + chartHeight;
+
+        for (int c = 0; c < colorGroups.length; c++) {
+            int[] group = colorGroups[c];
+            int start = lowerBound(group, first);
+            if (start == group.length || group[start] > last) {
+                continue;
+            }
+            barPaint.setColor(BAR_COLORS[c]);
+            for (int k = start; k < group.length && group[k] <= last; k++) {
+                int i = group[k];
+                float x = i * valueWidthPx + barSpacingPx / 2f;
+                canvas.drawRect(x, barTops[i], x + barWidth, barBottom, barPaint);
+            }
+        }
 
-            // 根据降雨强度设置颜色
-            if (precip > 0.5) {
-                barPaint.setColor(0xFF2196F3); // 蓝色 - 中雨
-            } else if (precip > 0.1) {
-                barPaint.setColor(0xFF64B5F6); // 浅蓝色 - 小雨
-            } else if (precip > 0) {
-                barPaint.setColor(0xFFBBDEFB); // 更浅的蓝色 - 微量
-            } else {
-                barPaint.setColor(0xFFE0E0E0); // 灰色 - 无雨
+        // 降雨量文字（在柱子顶部）
+        for (int i = first; i <= last; i++) {
+            if (valueLabels[i] != null) {
+                float x = i * valueWidthPx + barSpacingPx / 2f;
+                canvas.drawText(valueLabels[i], x + barWidth / 2f, valueLabelYs[i], textPaint);
             }
+        }
+    }
 
-            // 绘制柱子
-            canvas.drawRect(x, barTop, x + barWidth, barBottom, barPaint);
-
-            // 绘制降雨量文字（在柱子顶部）
-            if (precip > 0) {
-                textPaint.setTextSize(24f);
-                textPaint.setTextAlign(Paint.Align.CENTER);
-                float textY = barTop - dpToPx(4);
-                if (textY < padding) {
-                    textY = barBottom + dpToPx(20); // 如果空间不够，显示在柱子下方
-                }
-                canvas.drawText(String.format("%.1f", precip), x + barWidth / 2f, textY, textPaint);
+    /**
+     * 升序数组中第一个不小于value的位置
+     */
+    private static int lowerBound(int[] sorted, int value) {
+        int low = 0;
+        int high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < value) {
+                low = mid + 1;
+            } else {
+                high = mid;
             }
         }
+        return low;
     }
 
     /**
@@ -211,22 +433,17 @@ public class PrecipChartView extends View {
     }
 
     /**
-     * 绘制时间标签（每10分钟显示一次，即每10个柱子）
-     * 时间标签可以占用前后两个柱子的空间
+     * 绘制时间标签，位置对齐对应数据的第一个格子的中心
+     * 时间标签可以占用前后两个格子的空间
      */
     private void drawTimeLabels(Canvas canvas) {
-        int itemWidthPx = dpToPx(itemWidth);
-        int barSpacingPx = dpToPx(barSpacing);
-
-        for (int i = 0; i < precipitations.size(); i += 10) {
-            if (i < timeLabels.size() && timeLabels.get(i) != null && !timeLabels.get(i).isEmpty()) {
-                // 计算中心位置（对应柱子的中心）
-                float centerX = itemWidthPx / 2f + i * (itemWidthPx + barSpacingPx);
-
-                // 时间标签可以占用前后两个柱子的空间，所以x位置就是中心位置
-                timeTextPaint.setTextSize(32f); // 增大字体
-                timeTextPaint.setTextAlign(Paint.Align.CENTER);
-                canvas.drawText(timeLabels.get(i), centerX, getHeight() - dpToPx(5), timeTextPaint);
+        float labelY = getHeight() - timeLabelBottomPx;
+        for (int k = 0; k < timeLabels.size(); k++) {
+            int i = timeLabels.keyAt(k);
+            String label = timeLabels.valueAt(k);
+            if (i < precipitations.length && label != null && !label.isEmpty()) {
+                float centerX = itemWidthPx / 2f + i * valueWidthPx;
+                canvas.drawText(label, centerX, labelY, timeTextPaint);
             }
         }
     }
@@ -239,4 +456,3 @@ public class PrecipChartView extends View {
         return Math.round(dp * density);
     }
 }
-
@@ -0,0 +1,152 @@
+package com.example.weatherapp.views;
+
+/**
+ * 折线数据降采样
+ * 使用LTTB（Largest-Triangle-Three-Buckets）算法：首尾两点保留，其余数据平均分桶，
+ * 每个桶选出与上一个选中点、下一个桶平均点构成三角形面积最大的点，形状与原曲线接近；
+ * 选完后保证全局最高点和最低点在结果中（替换所在桶选中的点，同一个桶时结果多一个点）
+ * 横坐标为数据下标，数据点等间距
+ */
+public final class SeriesDownsampler {
+
+    private SeriesDownsampler() {
+    }
+
+    /**
+     * 根据可用像素宽度计算需要保留的点数：每minSpacingPx像素最多一个点
+     * @return 不超过count，至少为2（count不足2时为count）
+     */
+    public static int targetCount(int count, float contentWidthPx, float minSpacingPx) {
+        if (count <= 2 || minSpacingPx <= 0) {
+            return count;
+        }
+        int target = (int) (contentWidthPx / minSpacingPx) + 1;
+        return Math.max(2, Math.min(count, target));
+    }
+
+    /**
+     * LTTB降采样
+     * @param values    数据
+     * @param threshold 保留的点数
+     * @return 保留的数据下标，严格升序；threshold不小于数据个数时返回全部下标
+     */
+    public static int[] lttb(int[] values, int threshold) {
+        int n = values.length;
+        // 至少保留首尾和一个中间点，才能放进极值点
+        threshold = Math.max(3, threshold);
+        if (threshold >= n) {
+            return identity(n);
+        }
+
+        int[] selected = new int[threshold];
+        selected[0] = 0;
+        selected[threshold - 1] = n - 1;
+        // 中间n-2个点分成threshold-2个桶
+        int buckets = threshold - 2;
+        int a = 0;
+        for (int b = 0; b < buckets; b++) {
+            int start = bucketStart(b, n, buckets);
+            int end = bucketStart(b + 1, n, buckets);
+
+            // 下一个桶的平均点（最后一个桶用末尾点）
+            int nextStart = end;
+            int nextEnd = b + 1 < buckets ? bucketStart(b + 2, n, buckets) : n;
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += i;
+                avgY += values[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            avgX /= nextCount;
+            avgY /= nextCount;
+
+            double maxArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((a - avgX) * (values[i] - values[a])
+                        - (a - i) * (avgY - values[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    chosen = i;
+                }
+            }
+            selected[b + 1] = chosen;
+            a = chosen;
+        }
+
+        return keepExtremes(selected, indexOfMax(values), indexOfMin(values), n, buckets);
+    }
+
+    /** 第b个桶的起始下标（桶覆盖下标1..n-2） */
+    private static int bucketStart(int b, int n, int buckets) {
+        return 1 + (int) ((long) b * (n - 2) / buckets);
+    }
+
+    /** 下标所在的桶，首尾点返回-1 */
+    private static int bucketOf(int index, int n, int buckets) {
+        if (index == 0 || index == n - 1) {
+            return -1;
+        }
+        int b = (int) ((long) (index - 1) * buckets / (n - 2));
+        // 整数除法取整可能使下标落在相邻的桶
+        while (b > 0 && index < bucketStart(b, n, buckets)) {
+            b--;
+        }
+        while (b < buckets - 1 && index >= bucketStart(b + 1, n, buckets)) {
+            b++;
+        }
+        return b;
+    }
+
+    /**
+     * 把全局最高点和最低点放进结果：替换所在桶选中的点；两者在同一个桶时都保留（结果多一个点）
+     */
+    private static int[] keepExtremes(int[] selected, int max, int min, int n, int buckets) {
+        int maxBucket = bucketOf(max, n, buckets);
+        int minBucket = bucketOf(min, n, buckets);
+        if (maxBucket >= 0 && maxBucket == minBucket && max != min) {
+            int[] result = new int[selected.length + 1];
+            System.arraycopy(selected, 0, result, 0, maxBucket + 1);
+            result[maxBucket + 1] = Math.min(max, min);
+            result[maxBucket + 2] = Math.max(max, min);
+            System.arraycopy(selected, maxBucket + 2, result, maxBucket + 3, selected.length - maxBucket - 2);
+            return result;
+        }
+        if (maxBucket >= 0) {
+            selected[maxBucket + 1] = max;
+        }
+        if (minBucket >= 0) {
+            selected[minBucket + 1] = min;
+        }
+        return selected;
+    }
+
+    private static int indexOfMax(int[] values) {
+        int index = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] > values[index]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private static int indexOfMin(int[] values) {
+        int index = 0;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] < values[index]) {
+                index = i;
+            }
+        }
+        return index;
+    }
+
+    private static int[] identity(int n) {
+        int[] indices = new int[n];
+        for (int i = 0; i < n; i++) {
+            indices[i] = i;
+        }
+        return indices;
+    }
+}
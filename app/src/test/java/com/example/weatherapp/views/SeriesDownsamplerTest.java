@@ -0,0 +1,81 @@
+package com.example.weatherapp.views;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * SeriesDownsampler单元测试
+ */
+public class SeriesDownsamplerTest {
+
+    @Test
+    public void lttb_returnsAllIndicesWhenThresholdNotSmaller() {
+        int[] values = {3, 1, 4, 1, 5};
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, SeriesDownsampler.lttb(values, 5));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, SeriesDownsampler.lttb(values, 100));
+        assertArrayEquals(new int[0], SeriesDownsampler.lttb(new int[0], 10));
+    }
+
+    @Test
+    public void lttb_keepsEndpointsAndAscendingOrder() {
+        Random random = new Random(42);
+        for (int round = 0; round < 200; round++) {
+            int[] values = randomSeries(random, 10 + random.nextInt(500));
+            int threshold = 3 + random.nextInt(values.length - 3);
+            int[] indices = SeriesDownsampler.lttb(values, threshold);
+
+            assertEquals(0, indices[0]);
+            assertEquals(values.length - 1, indices[indices.length - 1]);
+            for (int i = 1; i < indices.length; i++) {
+                assertTrue(indices[i] > indices[i - 1]);
+            }
+            // 最高点和最低点落在同一个桶时多保留一个点
+            assertTrue(indices.length == threshold || indices.length == threshold + 1);
+        }
+    }
+
+    @Test
+    public void lttb_preservesExtremes() {
+        int[] values = new int[720];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = (int) (10 * Math.sin(i / 12.0));
+        }
+        values[301] = 45;
+        values[302] = -30;
+
+        int[] indices = SeriesDownsampler.lttb(values, 40);
+
+        assertTrue(contains(indices, 301));
+        assertTrue(contains(indices, 302));
+    }
+
+    @Test
+    public void targetCount_isBoundedByCountAndWidth() {
+        assertEquals(72, SeriesDownsampler.targetCount(72, 10000f, 8f));
+        assertEquals(101, SeriesDownsampler.targetCount(720, 800f, 8f));
+        assertEquals(2, SeriesDownsampler.targetCount(720, 0f, 8f));
+        assertEquals(1, SeriesDownsampler.targetCount(1, 800f, 8f));
+    }
+
+    private static int[] randomSeries(Random random, int length) {
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = random.nextInt(60) - 20;
+        }
+        return values;
+    }
+
+    private static boolean contains(int[] indices, int index) {
+        for (int i : indices) {
+            if (i == index) {
+                return true;
+            }
+        }
+        return false;
+    }
+}